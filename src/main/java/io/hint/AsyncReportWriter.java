@@ -0,0 +1,225 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Prints reports from a single background thread, so failing threads never wait for output.</p>
+ *
+ * <p>Failing threads only add their report to a bounded lock-free queue, the writer thread prints reports
+ * in submission order and sleeps while the queue is empty. When the queue is full, the {@link OverflowPolicy}
+ * decides what happens to the new report.</p>
+ *
+ * <p>Pending reports are printed before the application exits, either through {@link #drain()} before
+ * the {@link ExitStrategy} is applied or from a single shutdown hook shared by all writers. The count of
+ * discarded reports is printed after the next printed report, or once the queue is empty.</p>
+ */
+final class AsyncReportWriter {
+    // time given to pending reports to be printed before the JVM exits
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // writers whose thread was started, drained by the shutdown hook
+    private static final Set<AsyncReportWriter> STARTED =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private static final AtomicBoolean SHUTDOWN_HOOK_REGISTERED = new AtomicBoolean();
+
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final ConcurrentLinkedQueue<HintReport> queue = new ConcurrentLinkedQueue<>();
+    // reports submitted and not printed yet, including the one being printed
+    private final AtomicInteger pending = new AtomicInteger();
+    // reports discarded since the last printed report
+    private final LongAdder discarded = new LongAdder();
+    // prints the count of discarded reports once the queue is empty, with the output of the last discarded one
+    private volatile HintReport lastDiscarded;
+    // the count is printed once, by the writer thread or by a draining thread; a lock does not pin virtual threads
+    private final ReentrantLock discardedLock = new ReentrantLock();
+    private final Thread writer;
+    // writer thread is started on first report
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean closed;
+
+    AsyncReportWriter(int capacity, OverflowPolicy overflowPolicy) {
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        writer = new Thread(this::run, "hint-report-writer");
+        writer.setDaemon(true);
+    }
+
+    private void start() {
+        STARTED.add(this);
+        writer.start();
+        if (!SHUTDOWN_HOOK_REGISTERED.get() && SHUTDOWN_HOOK_REGISTERED.compareAndSet(false, true)) {
+            try {
+                Runtime.getRuntime().addShutdownHook(new Thread(AsyncReportWriter::drainAll, "hint-report-drain"));
+            } catch (IllegalStateException | SecurityException ignored) {
+                // JVM is already shutting down, or hooks are not allowed
+            }
+        }
+    }
+
+    private static void drainAll() {
+        AsyncReportWriter[] writers;
+        synchronized (STARTED) {
+            writers = STARTED.toArray(new AsyncReportWriter[0]);
+        }
+        for (AsyncReportWriter asyncWriter : writers) {
+            asyncWriter.drain();
+        }
+    }
+
+    /**
+     * Queues given report to be printed by the writer thread
+     */
+    void submit(HintReport report) {
+        while (true) {
+            int n = pending.get();
+            if (n < capacity) {
+                if (pending.compareAndSet(n, n + 1)) {
+                    break;
+                }
+                continue;
+            }
+            switch (overflowPolicy) {
+                case DISCARD_NEWEST:
+                    if (report.isPrinted()) {
+                        discard(report);
+                        // the writer thread may have found the queue empty before this count
+                        LockSupport.unpark(writer);
+                    }
+                    return;
+                case CALLER_RUNS:
+                    report.print();
+                    return;
+                default:
+                    // DISCARD_OLDEST, the slot of the oldest report is reused
+                    HintReport oldest = queue.poll();
+                    if (oldest == null) {
+                        // reports are being queued or printed, try again later
+                        Thread.yield();
+                    } else {
+                        if (oldest.isPrinted()) {
+                            discard(oldest);
+                        }
+                        pending.decrementAndGet();
+                    }
+            }
+        }
+        // checked once the slot is reserved, so the writer thread cannot stop before printing this report
+        if (closed) {
+            // settings changed since, no more reports are queued
+            pending.decrementAndGet();
+            // the writer thread may be waiting for the slot reserved above
+            LockSupport.unpark(writer);
+            report.print();
+            return;
+        }
+        queue.offer(report);
+        if (!started.get() && started.compareAndSet(false, true)) {
+            start();
+        }
+        LockSupport.unpark(writer);
+    }
+
+    private void discard(HintReport report) {
+        lastDiscarded = report;
+        discarded.increment();
+    }
+
+    /**
+     * Prints the count of reports discarded since the last printed report, if any, with the output of given report
+     */
+    private void printDiscarded(HintReport report) {
+        if (report == null) {
+            return;
+        }
+        discardedLock.lock();
+        try {
+            long count = discarded.sumThenReset();
+            if (count > 0) {
+                report.printDiscarded(count);
+            }
+        } catch (RuntimeException ignored) {
+            // a failing printer must not stop reporting of next exceptions
+        } finally {
+            discardedLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until all pending reports are printed, or a timeout of a few seconds, then prints the count of
+     * discarded reports
+     *
+     * @return {@code true} if all pending reports were printed
+     */
+    boolean drain() {
+        final long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (pending.get() > 0) {
+            // a writer thread not started yet is being started by the thread which queued a report
+            if (System.nanoTime() - deadline >= 0 || (started.get() && !writer.isAlive())) {
+                return false;
+            }
+            LockSupport.parkNanos(this, DRAIN_POLL_NANOS);
+        }
+        printDiscarded(lastDiscarded);
+        return true;
+    }
+
+    /**
+     * Stops the writer thread once pending reports are printed, next reports are printed synchronously
+     */
+    void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+    }
+
+    private void run() {
+        while (true) {
+            HintReport report = queue.poll();
+            if (report == null) {
+                // the last burst of discarded reports is not followed by a printed report
+                printDiscarded(lastDiscarded);
+                if (closed && pending.get() == 0) {
+                    STARTED.remove(this);
+                    return;
+                }
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                report.print();
+                // a report only journaled prints nothing to follow
+                if (report.isPrinted()) {
+                    printDiscarded(report);
+                }
+            } catch (RuntimeException ignored) {
+                // a failing printer must not stop reporting of next exceptions
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+    }
+}
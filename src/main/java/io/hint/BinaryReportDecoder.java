@@ -0,0 +1,110 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.io.BinaryRecordReader;
+import io.hint.io.WrappedPrintStream;
+import io.hint.io.WrappedPrinter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * <p>Prints reports written by {@link BinaryReportSink}, as text or as records of a structured {@link ReportFormat}.</p>
+ *
+ * <p>Usage :</p>
+ * <pre>
+ *     java -cp take-a-hint.jar io.hint.BinaryReportDecoder [--format=text|ndjson|logfmt] [file]
+ * </pre>
+ *
+ * <p>Reports are read from standard input if no file is given. Default prefixes and separators are used,
+ * stacktraces are printed if they were written.</p>
+ */
+public final class BinaryReportDecoder {
+    private static final String FORMAT_OPTION = "--format=";
+
+    private BinaryReportDecoder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        ReportFormat format = ReportFormat.TEXT;
+        String file = null;
+        for (String arg : args) {
+            if (arg.startsWith(FORMAT_OPTION)) {
+                try {
+                    format = ReportFormat.valueOf(arg.substring(FORMAT_OPTION.length()).toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    usage();
+                    return;
+                }
+            } else if (file == null && !arg.startsWith("-")) {
+                file = arg;
+            } else {
+                usage();
+                return;
+            }
+        }
+        try (InputStream in = file == null ? System.in : Files.newInputStream(Paths.get(file))) {
+            decode(in, format, System.out);
+        }
+        System.out.flush();
+    }
+
+    /**
+     * Prints each report of given stream
+     *
+     * @param in     stream written by {@link BinaryReportSink}, closed once all reports are printed
+     * @param format output format of reports
+     * @param out    target stream
+     * @throws IOException if the stream cannot be read, or is not a stream of binary reports
+     */
+    public static void decode(InputStream in, ReportFormat format, PrintStream out) throws IOException {
+        final HintRenderer renderer = new HintCommand().reportFormat(format).showStackTrace(true)
+                .getConfig().getRenderer();
+        final WrappedPrinter printer = new WrappedPrintStream("", "", out);
+        final StringBuilder sb = new StringBuilder();
+        try (BinaryRecordReader reader = new BinaryRecordReader(in)) {
+            for (int type = reader.nextRecord(); type != -1; type = reader.nextRecord()) {
+                switch (type) {
+                    case BinaryReportSink.REPORT:
+                        HintReport.read(reader, renderer, printer).print();
+                        break;
+                    case BinaryReportSink.OCCURRENCES:
+                        sb.setLength(0);
+                        renderer.appendOccurrences(sb, reader.readLong(), reader.readString());
+                        printer.println(sb);
+                        break;
+                    case BinaryReportSink.DISCARDED:
+                        sb.setLength(0);
+                        renderer.appendDiscarded(sb, reader.readLong());
+                        printer.println(sb);
+                        break;
+                    default:
+                        throw new IOException("Unknown record type: " + type);
+                }
+            }
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java -cp take-a-hint.jar " + BinaryReportDecoder.class.getName()
+                + " [" + FORMAT_OPTION + "text|ndjson|logfmt] [file]");
+    }
+}
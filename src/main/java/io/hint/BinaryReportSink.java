@@ -0,0 +1,225 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.io.BinaryRecordWriter;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>Writes reports in a compact binary format instead of printing them, for high volumes of handled exceptions.
+ * Class, method, file names and messages repeated across reports are written once and then referenced.</p>
+ *
+ * <p>Reports are buffered in blocks, optionally deflated, which are written when full, when this sink is flushed
+ * or closed, and when the JVM shuts down. Use {@link BinaryReportDecoder} to print them back as text or records.</p>
+ *
+ * <p>If writing fails, reports are printed instead: those buffered in the block which could not be written,
+ * then next reports.</p>
+ *
+ * @see HintCommand#binarySink(BinaryReportSink)
+ */
+public final class BinaryReportSink implements Closeable, Flushable {
+    /**
+     * Default size of blocks, in bytes
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    // record types
+    static final int REPORT = 1;
+    static final int OCCURRENCES = 2;
+    static final int DISCARDED = 3;
+
+    private final BinaryRecordWriter writer;
+    private final AtomicBoolean shutdownHookRegistered = new AtomicBoolean();
+    // once the JVM shuts down, each record is written immediately
+    private boolean shuttingDown;
+    // first write failure, next reports are printed
+    private IOException failure;
+    // prints each record of the current block as text, if the block cannot be written
+    private final List<Runnable> unwritten = new ArrayList<>();
+
+    /**
+     * @param out target stream, with deflated blocks of {@link #DEFAULT_BLOCK_SIZE} bytes
+     */
+    public BinaryReportSink(OutputStream out) {
+        this(out, DEFAULT_BLOCK_SIZE, true);
+    }
+
+    /**
+     * @param out       target stream
+     * @param blockSize bytes of reports buffered before being written
+     * @param compress  {@code true} to deflate each block
+     */
+    public BinaryReportSink(OutputStream out, int blockSize, boolean compress) {
+        writer = new BinaryRecordWriter(out, blockSize, compress);
+    }
+
+    /**
+     * @param file file to be created, or replaced
+     * @return sink writing to given file, with deflated blocks of {@link #DEFAULT_BLOCK_SIZE} bytes
+     * @throws IOException if the file cannot be opened
+     */
+    public static BinaryReportSink open(Path file) throws IOException {
+        return new BinaryReportSink(Files.newOutputStream(file));
+    }
+
+    /**
+     * @return {@code false} if the report could not be written
+     */
+    synchronized boolean write(HintReport report) {
+        if (failure != null) {
+            return false;
+        }
+        writer.startRecord(REPORT);
+        report.write(writer);
+        return endRecord(report::printText);
+    }
+
+    /**
+     * @param printer prints the count as text, if it is buffered and its block cannot be written
+     * @return {@code false} if the count could not be written
+     */
+    synchronized boolean writeOccurrences(long count, String description, Runnable printer) {
+        if (failure != null) {
+            return false;
+        }
+        writer.startRecord(OCCURRENCES);
+        writer.writeLong(count);
+        writer.writeString(description);
+        return endRecord(printer);
+    }
+
+    /**
+     * @param printer prints the count as text, if it is buffered and its block cannot be written
+     * @return {@code false} if the count could not be written
+     */
+    synchronized boolean writeDiscarded(long count, Runnable printer) {
+        if (failure != null) {
+            return false;
+        }
+        writer.startRecord(DISCARDED);
+        writer.writeLong(count);
+        return endRecord(printer);
+    }
+
+    /**
+     * Writes buffered reports
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            fail(e);
+            throw e;
+        }
+        unwritten.clear();
+    }
+
+    /**
+     * Writes buffered reports and closes the target stream, next reports are printed
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (failure == null) {
+            failure = new IOException("Sink closed");
+            try {
+                writer.close();
+            } catch (IOException e) {
+                fail(e);
+                throw e;
+            }
+            unwritten.clear();
+        }
+    }
+
+    /**
+     * @param printer prints the record ended as text, while it is buffered
+     */
+    private boolean endRecord(Runnable printer) {
+        try {
+            if (shuttingDown) {
+                writer.flush();
+            } else {
+                writer.endRecord();
+            }
+        } catch (IOException e) {
+            // the record ended is printed by the caller
+            fail(e);
+            return false;
+        }
+        if (writer.hasBufferedRecords()) {
+            unwritten.add(printer);
+        } else {
+            unwritten.clear();
+        }
+        if (!shutdownHookRegistered.get() && shutdownHookRegistered.compareAndSet(false, true)) {
+            registerShutdownHook();
+        }
+        return true;
+    }
+
+    private synchronized void flushOnShutdown() {
+        // reports queued for asynchronous reporting may still be written after this hook
+        shuttingDown = true;
+        if (failure == null) {
+            try {
+                writer.flush();
+                unwritten.clear();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    /**
+     * Prints records of the block which could not be written, next records are printed by their caller
+     */
+    private void fail(IOException e) {
+        failure = e;
+        for (Runnable printer : unwritten) {
+            try {
+                printer.run();
+            } catch (RuntimeException ignored) {
+                // next records are printed anyway
+            }
+        }
+        unwritten.clear();
+    }
+
+    private void registerShutdownHook() {
+        try {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::flushOnShutdown, "hint-report-sink"));
+        } catch (IllegalStateException | SecurityException ignored) {
+            // JVM is already shutting down, or hooks are not allowed
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import java.util.function.IntConsumer;
+
+/**
+ * <p>How the application exits after an uncaught exception, when {@code defaultExitCode} is not {@code 1}.</p>
+ *
+ * <p>Every strategy is given the output of Hint to flush before exiting: pending asynchronous reports,
+ * the binary sink and the printing stream.</p>
+ *
+ * @see HintCommand#exitStrategy(ExitStrategy)
+ */
+@FunctionalInterface
+public interface ExitStrategy {
+
+    /**
+     * Exits the application, or hands the exit over to the caller
+     *
+     * @param exitCode exit code of the application
+     * @param flush    flushes output of Hint, reports printed so far are not lost once it returns
+     */
+    void exit(int exitCode, Runnable flush);
+
+    /**
+     * <p>Flushes output of Hint, then calls {@link System#exit(int)}.</p>
+     *
+     * <p>Shutdown hooks of the application are run, the JVM may not exit if one of them blocks.</p>
+     *
+     * @return default strategy
+     */
+    static ExitStrategy systemExit() {
+        return (exitCode, flush) -> {
+            flush.run();
+            System.exit(exitCode);
+        };
+    }
+
+    /**
+     * <p>Flushes output of Hint, then calls {@link Runtime#halt(int)} without running shutdown hooks.</p>
+     *
+     * <p>If flushing takes longer than the given deadline, the JVM is halted anyway.</p>
+     *
+     * @param deadlineMillis time given to flush output of Hint, in milliseconds
+     * @return strategy halting the JVM within the given deadline
+     */
+    static ExitStrategy halt(long deadlineMillis) {
+        if (deadlineMillis < 0) {
+            throw new IllegalArgumentException("Negative deadline: " + deadlineMillis);
+        }
+        return (exitCode, flush) -> {
+            Thread watchdog = new Thread(() -> {
+                try {
+                    Thread.sleep(deadlineMillis);
+                } catch (InterruptedException ignored) {
+                    // halted anyway
+                }
+                Runtime.getRuntime().halt(exitCode);
+            }, "hint-exit-deadline");
+            watchdog.setDaemon(true);
+            watchdog.start();
+            try {
+                flush.run();
+            } finally {
+                Runtime.getRuntime().halt(exitCode);
+            }
+        };
+    }
+
+    /**
+     * <p>Flushes output of Hint, then gives the exit code to the callback instead of exiting.</p>
+     *
+     * <p>Meant for applications embedded in another one, e.g a test harness or a shell.</p>
+     *
+     * @param callback called with the exit code, on the failing thread
+     * @return strategy leaving the exit to the callback
+     */
+    static ExitStrategy callback(IntConsumer callback) {
+        return (exitCode, flush) -> {
+            flush.run();
+            callback.accept(exitCode);
+        };
+    }
+}
@@ -15,7 +15,9 @@
  */
 package io.hint;
 
+import io.hint.annotation.GeneratedHintConfig;
 import io.hint.annotation.Hint;
+import io.hint.concurrent.VirtualThreads;
 
 /**
  * <p>Initialize this class to use Hint custom exceptionHandler {@link HintExceptionHandler}.</p>
@@ -28,18 +30,56 @@ import io.hint.annotation.Hint;
  * <p>You can configure your instance using annotation {@link Hint} or programmatic API (static methods)</p>
  * <p><b>Note : </b>Programmatic API overrides annotation configuration</p>
  *
+ * <p>This class acts as a builder: reports use the immutable {@link HintConfig} returned by {@link #getConfig()},
+ * so an instance should be configured by a single thread before being used.</p>
+ *
  * <p>If no explicit configuration is provided,
  * the new instance uses the default configuration specified with {@link Hint} properties</p>.
  */
 @Hint
 public class HintCommand {
+    // reports of virtual threads waiting to be printed at most
+    private static final int VIRTUAL_THREAD_QUEUE_CAPACITY = 1024;
+    // settings of the Hint annotation changed through programmatic API, kept when the annotation is read
+    private static final int SHOW_STACK_TRACE = 1 << 0;
+    private static final int SHOW_HINTS = 1 << 1;
+    private static final int MAX_STACK_FRAMES = 1 << 2;
+    private static final int COLLAPSED_PACKAGES = 1 << 3;
+    private static final int DEDUPLICATION_WINDOW = 1 << 4;
+    private static final int DEFAULT_EXCEPTION_MESSAGE = 1 << 5;
+    private static final int DEFAULT_DOCS_MESSAGE = 1 << 6;
+    private static final int DEFAULT_EXIT_CODE = 1 << 7;
+    private static final int HINT_PREFIX = 1 << 8;
+    private static final int ERROR_PREFIX = 1 << 9;
+    private static final int STACK_PREFIX = 1 << 10;
+    private static final int DOCS_PREFIX = 1 << 11;
+    private static final int DEFAULT_DOCS_SEPARATOR = 1 << 12;
+    private static final int DEFAULT_SEPARATOR = 1 << 13;
+    private static final int DOCS_URL = 1 << 14;
+
     // flags
     private boolean showStackTrace;
     private boolean showHints;
+    // stacktrace
+    private int maxStackFrames;
+    private String[] collapsedPackages;
+    // output
+    private ReportFormat reportFormat = ReportFormat.TEXT;
+    private BinaryReportSink binarySink;
+    private ReportJournal journal;
+    // repeated reports
+    private long deduplicationWindow;
+    // metrics
+    private HintMetrics metrics;
+    // asynchronous reporting
+    private int asyncQueueCapacity;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DISCARD_NEWEST;
     // default messages
     private String defaultExceptionMessage;
     private String defaultDocsMessage;
     private int defaultExitCode;
+    // null for System.exit
+    private ExitStrategy exitStrategy;
     // prefixes
     private String hintPrefix;
     private String errorPrefix;
@@ -50,6 +90,19 @@ public class HintCommand {
     private String defaultDocsSeparator;
     // misc
     private String docsUrl;
+    // class annotated with Hint, read by loadDefaults
+    private Class<?> annotatedType;
+    private boolean defaultsLoaded;
+    // settings changed before the annotation is read, bits of the constants above
+    private int overrides;
+    // snapshot used by HintExceptionHandler, reset by programmatic API
+    private volatile HintConfig config;
+    // shared by all handlers of this instance, reset when deduplication window changes
+    private ReportDeduplicator deduplicator;
+    // shared by all handlers of this instance, closed when asynchronous reporting settings change
+    private AsyncReportWriter asyncWriter;
+    // prints reports of virtual threads, whose carrier thread would be pinned while waiting for output
+    private AsyncReportWriter virtualThreadWriter;
 
     /**
      * <p>Constructs an object of HintCommand based on default settings</p>
@@ -69,41 +122,131 @@ public class HintCommand {
      * @param object class annotated with {@code Hint} annotation
      */
     public HintCommand(Object object) {
+        // the annotation is read on first use, not on the startup path
+        annotatedType = object == null ? null : object.getClass();
+    }
+
+    /**
+     * Reads default settings from the {@code Hint} annotation, once and before any setting is read.
+     * Settings changed through programmatic API do not read it, it is read when reports are first configured.
+     */
+    private synchronized void loadDefaults() {
+        if (defaultsLoaded) {
+            return;
+        }
+        defaultsLoaded = true;
         // checks if there is an annotation on passed object
         Hint hint = null;
-        if (object != null) {
-            hint = object.getClass().getAnnotation(Hint.class);
+        if (annotatedType != null) {
+            hint = HintHolder.HINTS.get(annotatedType);
+            annotatedType = null;
+        }
+        // get default annotation values from a subclass, if annotated
+        if (hint == null && this.getClass() != HintCommand.class) {
+            hint = HintHolder.HINTS.get(this.getClass());
         }
-        // get default annotation values from this class (dummy annotation)
+        // get default annotation values of this class (dummy annotation)
         if (hint == null) {
-            hint = this.getClass().getAnnotation(Hint.class);
+            hint = HintDefaults.INSTANCE;
+        }
+        // init properties, except those changed through programmatic API
+        if (isDefault(DEFAULT_EXCEPTION_MESSAGE)) {
+            defaultExceptionMessage = hint.defaultExceptionMessage();
+        }
+        if (isDefault(DEFAULT_DOCS_MESSAGE)) {
+            defaultDocsMessage = hint.defaultDocsMessage();
+        }
+        if (isDefault(SHOW_STACK_TRACE)) {
+            showStackTrace = hint.showStackTrace();
+        }
+        if (isDefault(SHOW_HINTS)) {
+            showHints = hint.showHints();
+        }
+        if (isDefault(MAX_STACK_FRAMES)) {
+            maxStackFrames = hint.maxStackFrames();
+        }
+        if (isDefault(COLLAPSED_PACKAGES)) {
+            collapsedPackages = hint.collapsedPackages();
+        }
+        if (isDefault(DEDUPLICATION_WINDOW)) {
+            deduplicationWindow = hint.deduplicationWindow();
+        }
+        if (isDefault(DOCS_URL)) {
+            docsUrl = hint.docsUrl();
+        }
+        if (isDefault(HINT_PREFIX)) {
+            hintPrefix = hint.hintPrefix();
+        }
+        if (isDefault(ERROR_PREFIX)) {
+            errorPrefix = hint.errorPrefix();
+        }
+        if (isDefault(STACK_PREFIX)) {
+            stackPrefix = hint.stackPrefix();
+        }
+        if (isDefault(DOCS_PREFIX)) {
+            docsPrefix = hint.docsPrefix();
         }
-        // init properties
-        defaultExceptionMessage = hint.defaultExceptionMessage();
-        defaultDocsMessage = hint.defaultDocsMessage();
-        showStackTrace = hint.showStackTrace();
-        showHints = hint.showHints();
-        docsUrl = hint.docsUrl();
-        hintPrefix = hint.hintPrefix();
-        errorPrefix = hint.errorPrefix();
-        stackPrefix = hint.stackPrefix();
-        docsPrefix = hint.docsPrefix();
-        defaultSeparator = hint.defaultSeparator();
-        defaultDocsSeparator = hint.defaultDocsSeparator();
-        defaultExitCode = hint.defaultExitCode();
+        if (isDefault(DEFAULT_SEPARATOR)) {
+            defaultSeparator = hint.defaultSeparator();
+        }
+        if (isDefault(DEFAULT_DOCS_SEPARATOR)) {
+            defaultDocsSeparator = hint.defaultDocsSeparator();
+        }
+        if (isDefault(DEFAULT_EXIT_CODE)) {
+            defaultExitCode = hint.defaultExitCode();
+        }
+    }
+
+    private boolean isDefault(int setting) {
+        return (overrides & setting) == 0;
     }
 
     /**
      * <p>Initialize exception handling by setting a custom {@code uncaughtExceptionHandler} to the main thread.</p>
      * <p>
      * This custom exception handler takes care of showing final output for uncaught exceptions using Hint configuration.
+     * <p>
+     * Only a small stub is installed on the startup path: the annotation is read, current settings are frozen into
+     * a {@link HintConfig} and reporting classes are loaded when the first exception is handled.
+     * Call this method again to apply settings changed afterwards.
      *
      * @throws SecurityException if a security manager is present and it
      *                           denies <tt>{@link RuntimePermission}
      *                           (&quot;setDefaultUncaughtExceptionHandler&quot;)</tt>
      */
     public void init() {
-        Thread.setDefaultUncaughtExceptionHandler(new HintExceptionHandler(this));
+        Thread.setDefaultUncaughtExceptionHandler(new LazyExceptionHandler(this));
+    }
+
+    /**
+     * Prefers configuration generated at compile time by {@code take-a-hint-codegen} for the current version
+     * of {@code Hint}, falls back to reading the annotation using reflection.
+     * Called once for each class, so a missing generated class is only looked up once.
+     */
+    private static Hint findHint(Class<?> type) {
+        try {
+            Class<? extends Hint> configClass = Class.forName(GeneratedHintConfig.getClassName(type.getName()), true,
+                    type.getClassLoader()).asSubclass(Hint.class);
+            // a class generated for another version of Hint would fail on attributes added since
+            if (configClass.getField(GeneratedHintConfig.VERSION_FIELD).getInt(null) == GeneratedHintConfig.VERSION) {
+                return configClass.getDeclaredConstructor().newInstance();
+            }
+        } catch (ReflectiveOperationException | ClassCastException | LinkageError ignored) {
+            // no generated configuration for this class
+        }
+        return type.getAnnotation(Hint.class);
+    }
+
+    /**
+     * Configuration of each class, loaded on first use: classes without generated configuration are cached as well
+     */
+    private static final class HintHolder {
+        private static final ClassValue<Hint> HINTS = new ClassValue<Hint>() {
+            @Override
+            protected Hint computeValue(Class<?> type) {
+                return findHint(type);
+            }
+        };
     }
 
     // programmatic API
@@ -123,6 +266,8 @@ public class HintCommand {
      */
     public HintCommand showStackTrace(boolean showStackTrace) {
         this.showStackTrace = showStackTrace;
+        overrides |= SHOW_STACK_TRACE;
+        config = null;
         return this;
     }
 
@@ -135,6 +280,151 @@ public class HintCommand {
      */
     public HintCommand showHints(boolean showHints) {
         this.showHints = showHints;
+        overrides |= SHOW_HINTS;
+        config = null;
+        return this;
+    }
+
+    // stacktrace
+
+    /**
+     * Sets maximum number of frames shown for each exception in stacktrace,
+     * remaining frames are summarized in a single line
+     *
+     * @param maxStackFrames maximum number of frames, {@code 0} for no limit
+     * @return this HintCommand instance, to allow configuration chaining.
+     */
+    public HintCommand maxStackFrames(int maxStackFrames) {
+        this.maxStackFrames = maxStackFrames;
+        overrides |= MAX_STACK_FRAMES;
+        config = null;
+        return this;
+    }
+
+    /**
+     * Collapses consecutive frames from given packages (e.g {@code sun.reflect}, {@code picocli})
+     * into a single line in stacktrace, subpackages included
+     *
+     * @param collapsedPackages packages of framework frames
+     * @return this HintCommand instance, to allow configuration chaining.
+     */
+    public HintCommand collapsedPackages(String... collapsedPackages) {
+        this.collapsedPackages = collapsedPackages == null ? new String[0] : collapsedPackages.clone();
+        overrides |= COLLAPSED_PACKAGES;
+        config = null;
+        return this;
+    }
+
+    // output
+
+    /**
+     * <p>Sets output format of reports: human readable text, or a single line record for each report
+     * (error, hint, docs URL, exit code, exception type and frames) for log pipelines.</p>
+     *
+     * <p>Prefixes and separators are only used by text reports.</p>
+     *
+     * @param reportFormat output format, {@code null} for text
+     * @return this HintCommand instance, to allow configuration chaining.
+     */
+    public HintCommand reportFormat(ReportFormat reportFormat) {
+        this.reportFormat = reportFormat == null ? ReportFormat.TEXT : reportFormat;
+        config = null;
+        return this;
+    }
+
+    /**
+     * <p>Writes reports to given sink in a compact binary format, instead of printing them.</p>
+     *
+     * <p>Written reports can be printed later with {@link BinaryReportDecoder}.</p>
+     *
+     * @param binarySink sink shared by all reports, {@code null} to print reports
+     * @return this HintCommand instance, to allow configuration chaining.
+     */
+    public HintCommand binarySink(BinaryReportSink binarySink) {
+        this.binarySink = binarySink;
+        config = null;
+        return this;
+    }
+
+    /**
+     * <p>Appends a record of each handled exception to given journal, which can be shared by many processes.</p>
+     *
+     * <p>Reports are still printed, with the ID of their record in the journal.</p>
+     *
+     * @param journal journal shared by all reports, {@code null} to keep no journal
+     * @return this HintCommand instance, to allow configuration chaining.
+     * @see ReportJournalReader
+     */
+    public HintCommand journal(ReportJournal journal) {
+        this.journal = journal;
+        config = null;
+        return this;
+    }
+
+    // repeated reports
+
+    /**
+     * <p>Reports repeated occurrences of the same exception (same type, message and top frames) only once
+     * within the given window, next occurrences are only counted.</p>
+     *
+     * <p>The count of occurrences not reported is printed with the next report of the same exception,
+     * when the window is changed, or when the JVM shuts down.</p>
+     *
+     * @param deduplicationWindow window in milliseconds, {@code 0} to report each exception in full
+     * @return this HintCommand instance, to allow configuration chaining.
+     */
+    public synchronized HintCommand deduplicationWindow(long deduplicationWindow) {
+        this.deduplicationWindow = deduplicationWindow;
+        if (deduplicator != null) {
+            deduplicator.close();
+            deduplicator = null;
+        }
+        overrides |= DEDUPLICATION_WINDOW;
+        config = null;
+        return this;
+    }
+
+    // metrics
+
+    /**
+     * Counts handled exceptions and measures time spent by failing threads in the handler
+     *
+     * @param metrics metrics to be updated by each report, {@code null} to measure nothing
+     * @return this HintCommand instance, to allow configuration chaining.
+     */
+    public HintCommand metrics(HintMetrics metrics) {
+        this.metrics = metrics;
+        config = null;
+        return this;
+    }
+
+    // asynchronous reporting
+
+    /**
+     * <p>Prints reports from a background thread: the failing thread only queues a copy of its report
+     * and never waits for output.</p>
+     *
+     * <p>Pending reports are printed before the application exits with {@code defaultExitCode},
+     * or when the JVM shuts down.</p>
+     *
+     * <p>Without asynchronous reporting, reports of virtual threads are still printed by a background thread
+     * on Java 21 or later, as waiting for output would pin their carrier thread. No report is lost: when
+     * {@value #VIRTUAL_THREAD_QUEUE_CAPACITY} reports are waiting, a virtual thread prints its own report
+     * ({@link OverflowPolicy#CALLER_RUNS}).</p>
+     *
+     * @param queueCapacity  maximum number of reports waiting to be printed, {@code 0} to print each report
+     *                       on the failing thread
+     * @param overflowPolicy what happens to a new report when the queue is full
+     * @return this HintCommand instance, to allow configuration chaining.
+     */
+    public synchronized HintCommand asyncReporting(int queueCapacity, OverflowPolicy overflowPolicy) {
+        this.asyncQueueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.DISCARD_NEWEST : overflowPolicy;
+        if (asyncWriter != null) {
+            asyncWriter.close();
+            asyncWriter = null;
+        }
+        config = null;
         return this;
     }
 
@@ -148,6 +438,8 @@ public class HintCommand {
      */
     public HintCommand defaultExceptionMessage(String defaultExceptionMessage) {
         this.defaultExceptionMessage = getSafeValue(defaultExceptionMessage);
+        overrides |= DEFAULT_EXCEPTION_MESSAGE;
+        config = null;
         return this;
     }
 
@@ -159,6 +451,8 @@ public class HintCommand {
      */
     public HintCommand defaultDocsMessage(String defaultDocsMessage) {
         this.defaultDocsMessage = getSafeValue(defaultDocsMessage);
+        overrides |= DEFAULT_DOCS_MESSAGE;
+        config = null;
         return this;
     }
 
@@ -170,6 +464,25 @@ public class HintCommand {
      */
     public HintCommand defaultExitCode(int defaultExitCode) {
         this.defaultExitCode = defaultExitCode;
+        overrides |= DEFAULT_EXIT_CODE;
+        config = null;
+        return this;
+    }
+
+    /**
+     * <p>Sets how the application exits when {@code defaultExitCode} is not {@code 1}.</p>
+     *
+     * <p>By default, {@code System.exit} runs every shutdown hook of the application.
+     * Use {@link ExitStrategy#halt(long)} to give the shell back as soon as reports are flushed,
+     * or {@link ExitStrategy#callback(java.util.function.IntConsumer)} to leave the exit to an embedding
+     * application.</p>
+     *
+     * @param exitStrategy exit strategy, {@code null} for {@code System.exit}
+     * @return this HintCommand instance, to allow configuration chaining.
+     */
+    public HintCommand exitStrategy(ExitStrategy exitStrategy) {
+        this.exitStrategy = exitStrategy;
+        config = null;
         return this;
     }
 
@@ -183,6 +496,8 @@ public class HintCommand {
      */
     public HintCommand hintPrefix(String hintPrefix) {
         this.hintPrefix = getSafeValue(hintPrefix);
+        overrides |= HINT_PREFIX;
+        config = null;
         return this;
     }
 
@@ -194,6 +509,8 @@ public class HintCommand {
      */
     public HintCommand errorPrefix(String errorPrefix) {
         this.errorPrefix = getSafeValue(errorPrefix);
+        overrides |= ERROR_PREFIX;
+        config = null;
         return this;
     }
 
@@ -205,6 +522,8 @@ public class HintCommand {
      */
     public HintCommand stackPrefix(String stackPrefix) {
         this.stackPrefix = getSafeValue(stackPrefix);
+        overrides |= STACK_PREFIX;
+        config = null;
         return this;
     }
 
@@ -216,6 +535,8 @@ public class HintCommand {
      */
     public HintCommand docsPrefix(String docsPrefix) {
         this.docsPrefix = getSafeValue(docsPrefix);
+        overrides |= DOCS_PREFIX;
+        config = null;
         return this;
     }
 
@@ -235,6 +556,8 @@ public class HintCommand {
      */
     public HintCommand defaultDocsSeparator(String defaultDocsSeparator) {
         this.defaultDocsSeparator = getSafeValue(defaultDocsSeparator);
+        overrides |= DEFAULT_DOCS_SEPARATOR;
+        config = null;
         return this;
     }
 
@@ -246,6 +569,8 @@ public class HintCommand {
      */
     public HintCommand defaultSeparator(String defaultSeparator) {
         this.defaultSeparator = getSafeValue(defaultSeparator);
+        overrides |= DEFAULT_SEPARATOR;
+        config = null;
         return this;
     }
 
@@ -259,66 +584,192 @@ public class HintCommand {
      */
     public HintCommand docsUrl(String docsUrl) {
         this.docsUrl = getSafeValue(docsUrl);
+        overrides |= DOCS_URL;
+        config = null;
         return this;
     }
 
+    /**
+     * <p>Freezes current settings into an immutable {@link HintConfig}.</p>
+     *
+     * <p>The same config is returned until settings change through programmatic API.</p>
+     *
+     * @return snapshot of current settings
+     */
+    public HintConfig getConfig() {
+        HintConfig frozen = config;
+        if (frozen == null) {
+            loadDefaults();
+            frozen = new HintConfig(this, getDeduplicator(), getAsyncWriter(), getVirtualThreadWriter());
+            config = frozen;
+        }
+        return frozen;
+    }
+
     // package-visible getters
 
     // flags
 
     boolean canShowStackTrace() {
+        loadDefaults();
         return showStackTrace;
     }
 
     boolean canShowHints() {
+        loadDefaults();
         return showHints;
     }
 
+    // stacktrace
+
+    int getMaxStackFrames() {
+        loadDefaults();
+        return maxStackFrames;
+    }
+
+    String[] getCollapsedPackages() {
+        loadDefaults();
+        return collapsedPackages.clone();
+    }
+
+    // output
+
+    ReportFormat getReportFormat() {
+        return reportFormat;
+    }
+
+    BinaryReportSink getBinarySink() {
+        return binarySink;
+    }
+
+    ReportJournal getJournal() {
+        return journal;
+    }
+
+    // repeated reports
+
+    long getDeduplicationWindow() {
+        loadDefaults();
+        return deduplicationWindow;
+    }
+
+    /**
+     * @return deduplicator shared by all reports, {@code null} if each exception should be reported in full
+     */
+    synchronized ReportDeduplicator getDeduplicator() {
+        loadDefaults();
+        if (deduplicator == null && deduplicationWindow > 0) {
+            deduplicator = new ReportDeduplicator(deduplicationWindow, (count, description, printer, asyncWriter) -> {
+                // same output as the reports it summarizes, after them
+                HintConfig frozen = getConfig();
+                HintReport summary = HintReport.occurrences(frozen.getRenderer(), printer, frozen.getBinarySink(),
+                        count, description);
+                if (asyncWriter != null) {
+                    asyncWriter.submit(summary);
+                } else {
+                    summary.print();
+                }
+            });
+        }
+        return deduplicator;
+    }
+
+    // metrics
+
+    HintMetrics getMetrics() {
+        return metrics;
+    }
+
+    // asynchronous reporting
+
+    int getAsyncQueueCapacity() {
+        return asyncQueueCapacity;
+    }
+
+    OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return writer shared by all reports, {@code null} if reports are printed on the failing thread
+     */
+    synchronized AsyncReportWriter getAsyncWriter() {
+        if (asyncWriter == null && asyncQueueCapacity > 0) {
+            asyncWriter = new AsyncReportWriter(asyncQueueCapacity, overflowPolicy);
+        }
+        return asyncWriter;
+    }
+
+    /**
+     * @return writer of reports from virtual threads, {@code null} if virtual threads are not supported
+     */
+    synchronized AsyncReportWriter getVirtualThreadWriter() {
+        if (virtualThreadWriter == null && VirtualThreads.isSupported()) {
+            // reporting stays lossless as without a writer, only its thread changes
+            virtualThreadWriter = new AsyncReportWriter(VIRTUAL_THREAD_QUEUE_CAPACITY, OverflowPolicy.CALLER_RUNS);
+        }
+        return virtualThreadWriter;
+    }
+
     // default messages
 
     String getDefaultExceptionMessage() {
+        loadDefaults();
         return defaultExceptionMessage;
     }
 
     String getDefaultDocsMessage() {
+        loadDefaults();
         return defaultDocsMessage;
     }
 
     int getDefaultExitCode() {
+        loadDefaults();
         return defaultExitCode;
     }
 
+    ExitStrategy getExitStrategy() {
+        return exitStrategy == null ? ExitStrategy.systemExit() : exitStrategy;
+    }
+
     // prefixes
 
     String getHintPrefix() {
+        loadDefaults();
         return hintPrefix;
     }
 
     String getErrorPrefix() {
+        loadDefaults();
         return errorPrefix;
     }
 
     String getStackPrefix() {
+        loadDefaults();
         return stackPrefix;
     }
 
     String getDocsPrefix() {
+        loadDefaults();
         return docsPrefix;
     }
 
     // separators
 
     String getDefaultSeparator() {
+        loadDefaults();
         return defaultSeparator;
     }
 
     String getDefaultDocsSeparator() {
+        loadDefaults();
         return defaultDocsSeparator;
     }
 
     // misc
 
     String getDocsUrl() {
+        loadDefaults();
         return docsUrl;
     }
 }
\ No newline at end of file
@@ -0,0 +1,200 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+/**
+ * <p>Immutable snapshot of {@link HintCommand} settings, used by {@link HintExceptionHandler}.</p>
+ *
+ * <p>All fields are final, so a config can be shared by all threads reporting exceptions without any lock.
+ * Settings changed on {@code HintCommand} afterwards are only applied to the next config it creates.</p>
+ *
+ * @see HintCommand#getConfig()
+ */
+public final class HintConfig {
+    // flags
+    private final boolean showStackTrace;
+    private final boolean showHints;
+    // stacktrace
+    private final int maxStackFrames;
+    private final String[] collapsedPackages;
+    // output
+    private final ReportFormat reportFormat;
+    // null if reports are printed
+    private final BinaryReportSink binarySink;
+    // null if there is no journal
+    private final ReportJournal journal;
+    // default messages
+    private final String defaultExceptionMessage;
+    private final String defaultDocsMessage;
+    private final int defaultExitCode;
+    private final ExitStrategy exitStrategy;
+    // prefixes
+    private final String hintPrefix;
+    private final String errorPrefix;
+    private final String stackPrefix;
+    private final String docsPrefix;
+    // separators
+    private final String defaultSeparator;
+    private final String defaultDocsSeparator;
+    // misc
+    private final String docsUrl;
+    // null if nothing is measured
+    private final HintMetrics metrics;
+    // settings compiled once for all reports
+    private final HintRenderer renderer;
+    // null if each exception is reported in full
+    private final ReportDeduplicator deduplicator;
+    // null if reports are printed on the failing thread
+    private final AsyncReportWriter asyncWriter;
+    // null if virtual threads are not supported
+    private final AsyncReportWriter virtualThreadWriter;
+
+    HintConfig(HintCommand hintCommand, ReportDeduplicator deduplicator, AsyncReportWriter asyncWriter,
+               AsyncReportWriter virtualThreadWriter) {
+        showStackTrace = hintCommand.canShowStackTrace();
+        showHints = hintCommand.canShowHints();
+        maxStackFrames = hintCommand.getMaxStackFrames();
+        collapsedPackages = hintCommand.getCollapsedPackages();
+        reportFormat = hintCommand.getReportFormat();
+        binarySink = hintCommand.getBinarySink();
+        journal = hintCommand.getJournal();
+        defaultExceptionMessage = hintCommand.getDefaultExceptionMessage();
+        defaultDocsMessage = hintCommand.getDefaultDocsMessage();
+        defaultExitCode = hintCommand.getDefaultExitCode();
+        exitStrategy = hintCommand.getExitStrategy();
+        hintPrefix = hintCommand.getHintPrefix();
+        errorPrefix = hintCommand.getErrorPrefix();
+        stackPrefix = hintCommand.getStackPrefix();
+        docsPrefix = hintCommand.getDocsPrefix();
+        defaultSeparator = hintCommand.getDefaultSeparator();
+        defaultDocsSeparator = hintCommand.getDefaultDocsSeparator();
+        docsUrl = hintCommand.getDocsUrl();
+        metrics = hintCommand.getMetrics();
+        this.deduplicator = deduplicator;
+        this.asyncWriter = asyncWriter;
+        this.virtualThreadWriter = virtualThreadWriter;
+        // settings above are all set
+        renderer = new HintRenderer(this);
+    }
+
+    // package-visible getters
+
+    HintRenderer getRenderer() {
+        return renderer;
+    }
+
+    ReportDeduplicator getDeduplicator() {
+        return deduplicator;
+    }
+
+    AsyncReportWriter getAsyncWriter() {
+        return asyncWriter;
+    }
+
+    AsyncReportWriter getVirtualThreadWriter() {
+        return virtualThreadWriter;
+    }
+
+    HintMetrics getMetrics() {
+        return metrics;
+    }
+
+    // flags
+
+    boolean canShowStackTrace() {
+        return showStackTrace;
+    }
+
+    boolean canShowHints() {
+        return showHints;
+    }
+
+    // stacktrace
+
+    int getMaxStackFrames() {
+        return maxStackFrames;
+    }
+
+    String[] getCollapsedPackages() {
+        return collapsedPackages.clone();
+    }
+
+    // output
+
+    ReportFormat getReportFormat() {
+        return reportFormat;
+    }
+
+    BinaryReportSink getBinarySink() {
+        return binarySink;
+    }
+
+    ReportJournal getJournal() {
+        return journal;
+    }
+
+    // default messages
+
+    String getDefaultExceptionMessage() {
+        return defaultExceptionMessage;
+    }
+
+    String getDefaultDocsMessage() {
+        return defaultDocsMessage;
+    }
+
+    int getDefaultExitCode() {
+        return defaultExitCode;
+    }
+
+    ExitStrategy getExitStrategy() {
+        return exitStrategy;
+    }
+
+    // prefixes
+
+    String getHintPrefix() {
+        return hintPrefix;
+    }
+
+    String getErrorPrefix() {
+        return errorPrefix;
+    }
+
+    String getStackPrefix() {
+        return stackPrefix;
+    }
+
+    String getDocsPrefix() {
+        return docsPrefix;
+    }
+
+    // separators
+
+    String getDefaultSeparator() {
+        return defaultSeparator;
+    }
+
+    String getDefaultDocsSeparator() {
+        return defaultDocsSeparator;
+    }
+
+    // misc
+
+    String getDocsUrl() {
+        return docsUrl;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.annotation.Hint;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Default values of {@link Hint} as constants, avoids parsing the annotation of {@link HintCommand} at startup
+ */
+final class HintDefaults implements Hint {
+    static final Hint INSTANCE = new HintDefaults();
+
+    private HintDefaults() {
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return Hint.class;
+    }
+
+    @Override
+    public boolean showStackTrace() {
+        return false;
+    }
+
+    @Override
+    public boolean showHints() {
+        return true;
+    }
+
+    @Override
+    public int maxStackFrames() {
+        return 0;
+    }
+
+    @Override
+    public String[] collapsedPackages() {
+        return new String[]{};
+    }
+
+    @Override
+    public long deduplicationWindow() {
+        return 0;
+    }
+
+    @Override
+    public String defaultExceptionMessage() {
+        return "Application failed with exception : ";
+    }
+
+    @Override
+    public String defaultDocsMessage() {
+        return "See the docs for details : ";
+    }
+
+    @Override
+    public int defaultExitCode() {
+        return 1;
+    }
+
+    @Override
+    public String hintPrefix() {
+        return "\u2705 hints:";
+    }
+
+    @Override
+    public String errorPrefix() {
+        return "\u274C error:";
+    }
+
+    @Override
+    public String stackPrefix() {
+        return "\u26D4 stack:";
+    }
+
+    @Override
+    public String docsPrefix() {
+        return "\u2754 usage:";
+    }
+
+    @Override
+    public String defaultDocsSeparator() {
+        return "---";
+    }
+
+    @Override
+    public String defaultSeparator() {
+        return "\t";
+    }
+
+    @Override
+    public String docsUrl() {
+        return "";
+    }
+}
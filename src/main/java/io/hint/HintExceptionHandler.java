@@ -15,26 +15,38 @@
  */
 package io.hint;
 
-import io.hint.annotation.HintMessage;
+import io.hint.concurrent.VirtualThreads;
 import io.hint.exception.HintThrowable;
+import io.hint.io.ThrowableSnapshot;
 import io.hint.io.WrappedPrintStream;
 import io.hint.io.WrappedPrintWriter;
 import io.hint.io.WrappedPrinter;
 
+import java.io.IOException;
 import java.io.PrintWriter;
-import java.lang.reflect.Method;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Custom {@code UncaughtExceptionHandler} to be used by Hint in order to reformat exceptions messages
  * depending on specified configuration.
  */
 public class HintExceptionHandler implements Thread.UncaughtExceptionHandler {
-    private final HintCommand hintCommandProperties;
+    // async wrappers unwrapped at most, in case of a wrapper chain
+    private static final int MAX_UNWRAP_DEPTH = 8;
+
+    private final HintConfig config;
     private PrintWriter printWriter;
 
+    /**
+     * @param hintCommandProperties settings to be used, frozen at construction time
+     */
     public HintExceptionHandler(HintCommand hintCommandProperties) {
-        this.hintCommandProperties = hintCommandProperties;
+        this(hintCommandProperties.getConfig());
+    }
+
+    public HintExceptionHandler(HintConfig config) {
+        this.config = config;
     }
 
     public void setPrintWriter(PrintWriter printWriter) {
@@ -45,6 +57,8 @@ public class HintExceptionHandler implements Thread.UncaughtExceptionHandler {
      * Instead of showing plain stacktrace as default behavior,
      * we use this handler to parse configuration and behave depending on the given properties:
      * <ul>
+     *     <li>If thrown exception wraps the failure of an asynchronous task ({@code CompletionException}
+     *     or {@code ExecutionException}), use the wrapped exception</li>
      *     <li>If elements are annotated with {@code HintMessage}, extract values from them and use them as hints</li>
      *     <li>If thrown exception is a supported type of {@code HintThrowable}, use original cause and extract
      *     metadata (hints message and custom error message)</li>
@@ -70,41 +84,24 @@ public class HintExceptionHandler implements Thread.UncaughtExceptionHandler {
         if (e == null) {
             return;
         }
+        final HintMetrics metrics = config.getMetrics();
+        // null unless a Flight Recorder event of the report is enabled
+        final ReportEvent event = ReportEvent.start();
+        // time spent by the failing thread is measured only if metrics or the event are enabled
+        report(unwrapAsyncFailure(e), metrics, event,
+                metrics == null && event == null ? 0L : System.nanoTime());
+        exitOnDemand();
+    }
 
-        // populate from method or from class
+    private void report(Throwable e, HintMetrics metrics, ReportEvent event, long start) {
+        // populate from method or from class, using HintMessage annotations
         String defaultHintMessage = null;
-
-        // experiment with HintMessage annotation
-        try {
-            if (e.getStackTrace().length != 0) {
-                // get origin class from stacktrace
-                StackTraceElement originalCause = e.getStackTrace()[0];
-                Class<?> clsType = Class.forName(originalCause.getClassName());
-
-                // get origin method from stacktrace
-                Method method = Stream.of(clsType.getDeclaredMethods())
-                        .filter(m ->
-                                originalCause.getMethodName().equals(m.getName())
-                                        && m.isAnnotationPresent(HintMessage.class))
-                        .findAny().orElse(null);
-
-                // if method is retrieved, retrieve info from annotation (if annotation is present)
-                if (method != null) {
-                    HintMessage hintMessage = method.getAnnotation(HintMessage.class);
-                    if (hintMessage != null) {
-                        defaultHintMessage = hintMessage.value();
-                    }
-                }
-
-                // if no message was retrieved from method, search for global annotation in class
-                if (isBlank(defaultHintMessage)) {
-                    HintMessage hintMessage = clsType.getAnnotation(HintMessage.class);
-                    if (hintMessage != null) {
-                        defaultHintMessage = hintMessage.value();
-                    }
-                }
-            }
-        } catch (ClassNotFoundException ignored) {
+        StackTraceElement hintFrame = null;
+        StackTraceElement[] stackTrace = e.getStackTrace();
+        if (stackTrace.length != 0) {
+            // get origin class and method from stacktrace
+            hintFrame = stackTrace[0];
+            defaultHintMessage = HintMessageResolver.resolve(hintFrame);
         }
 
         // get error message from thrown exception
@@ -135,90 +132,185 @@ public class HintExceptionHandler implements Thread.UncaughtExceptionHandler {
             errorMsg = "";
             hintsMsg = "";
         }
+        final boolean wrapperHint = !isBlank(hintsMsg);
+        final long lookupEnd = event == null ? 0L : System.nanoTime();
 
         // if no custom error message was retrieved from exception
         // opt for default exception message, if this latter is also non valid,
         // use default global error message
-        if (isBlank(errorMsg)) {
-            // get value for default message from properties
-            final String prefixThrowableMsg = hintCommandProperties.getDefaultExceptionMessage();
+        final boolean defaultError = isBlank(errorMsg);
+        if (defaultError) {
             // use either original exception class name or default exception detailMessage as final error message
-            errorMsg = String.format(prefixThrowableMsg + "%s",
-                    isBlank(e.getMessage()) ? t.getClass().getName() : e.getMessage());
+            errorMsg = isBlank(e.getMessage()) ? t.getClass().getName() : e.getMessage();
+        }
+
+        // every occurrence is journaled, even if it is not reported, by the thread printing its report
+        final ReportJournal journal = config.getJournal();
+        final String journalHint = wrapperHint ? hintsMsg : defaultHintMessage;
+        StackTraceElement topFrame = null;
+        if (journal != null) {
+            StackTraceElement[] causeStackTrace = t.getStackTrace();
+            topFrame = causeStackTrace.length == 0 ? null : causeStackTrace[0];
         }
 
+        // settings compiled once for all reports
+        final HintRenderer renderer = config.getRenderer();
+
         WrappedPrinter outPrinter;
         if (printWriter != null) {
             // use given writer as main writer
-            outPrinter = new WrappedPrintWriter(hintCommandProperties.getStackPrefix(), hintCommandProperties.getDefaultSeparator(), printWriter);
+            outPrinter = new WrappedPrintWriter("", "", printWriter);
         } else {
             // use err output as main stream
-            outPrinter = new WrappedPrintStream(hintCommandProperties.getStackPrefix(), hintCommandProperties.getDefaultSeparator(), System.err);
+            outPrinter = new WrappedPrintStream("", "", System.err);
+        }
+        AsyncReportWriter asyncWriter = config.getAsyncWriter();
+        if (asyncWriter == null && VirtualThreads.isVirtual(Thread.currentThread())) {
+            // output streams are synchronized: a virtual thread waiting for them would pin its carrier thread
+            asyncWriter = config.getVirtualThreadWriter();
         }
 
-        // retrieve prefix properties (prefix value for [error|hints|docs] + default separator)
-        final String errorPrefix = hintCommandProperties.getErrorPrefix() + hintCommandProperties.getDefaultSeparator();
-        final String hintsPrefix = hintCommandProperties.getHintPrefix() + hintCommandProperties.getDefaultSeparator();
-        final String docsPrefix = hintCommandProperties.getDocsPrefix() + hintCommandProperties.getDefaultSeparator();
-
-        // print error message to stream
-        outPrinter.println(resolveMsg(errorPrefix, errorMsg));
+        // count repeated occurrences of the same exception instead of reporting them again
+        long notReported = 0;
+        final ReportDeduplicator deduplicator = config.getDeduplicator();
+        if (deduplicator != null) {
+            notReported = deduplicator.register(t, outPrinter, asyncWriter);
+            if (notReported < 0) {
+                if (metrics != null) {
+                    metrics.record(t, hintSource(wrapperHint, defaultHintMessage, hintFrame), start);
+                }
+                if (event != null) {
+                    event.describe(t.getClass(), hintSource(wrapperHint, defaultHintMessage, hintFrame).getLabel(),
+                            true, false, renderer.getDefaultExitCode(), lookupEnd - start,
+                            System.nanoTime() - lookupEnd);
+                    event.commit(0L, 0L);
+                }
+                if (journal != null) {
+                    HintReport record = HintReport.journalRecord(journal, t.getClass().getName(), errorMsg,
+                            journalHint, topFrame);
+                    if (asyncWriter != null) {
+                        asyncWriter.submit(record);
+                    } else {
+                        record.print();
+                    }
+                }
+                return;
+            }
+        }
 
         // show hints on-demand
-        if (hintCommandProperties.canShowHints()) {
+        if (renderer.canShowHints()) {
             // if no hints message was explicitly set (e.g given a non custom exception),
             // opt for default hint message (retrieved using annotations in original method throwing handled exception)
             if (isBlank(hintsMsg)) {
                 hintsMsg = defaultHintMessage;
             }
-            // show hints if there is a valid value:
+            // show hints only if there is a valid value:
             // an explicit message or a default message retrieved from annotations
-            if (!isBlank(hintsMsg)) {
-                outPrinter.println(resolveMsg(hintsPrefix, hintsMsg));
+            if (isBlank(hintsMsg)) {
+                hintsMsg = null;
             }
+        } else {
+            hintsMsg = null;
         }
 
-        // if there is a URL for docs, append it as hints message
-        if (!isBlank(hintCommandProperties.getDocsUrl())) {
-            final String docsMsg =
-                    (isBlank(hintCommandProperties.getDefaultDocsSeparator())
-                            ? ""
-                            : hintCommandProperties.getDefaultDocsSeparator().concat("\n"))
-                            .concat(hintCommandProperties.getDefaultDocsMessage().concat(hintCommandProperties.getDocsUrl()));
+        // everything printed is resolved now, the report does not refer to the live throwable
+        final HintReport report = new HintReport(renderer, outPrinter, config.getBinarySink(),
+                notReported, notReported > 0 ? ReportDeduplicator.describe(t) : null,
+                t.getClass().getName(), errorMsg, defaultError, hintsMsg, null,
+                // show stacktrace on-demand
+                renderer.canShowStackTrace() ? ThrowableSnapshot.of(t) : null, event,
+                journal, journalHint, topFrame);
+        if (event != null) {
+            // committed once the report is printed, by the writer thread of an asynchronous report
+            event.describe(t.getClass(), hintSource(wrapperHint, defaultHintMessage, hintFrame).getLabel(),
+                    false, renderer.canShowStackTrace(), renderer.getDefaultExitCode(),
+                    lookupEnd - start, System.nanoTime() - lookupEnd);
+        }
 
-            // show docs message
-            outPrinter.println(resolveMsg(docsPrefix, docsMsg, false));
+        if (asyncWriter != null) {
+            asyncWriter.submit(report);
+        } else {
+            report.print();
         }
 
-        // show stacktrace on-demand
-        if (hintCommandProperties.canShowStackTrace()) {
-            outPrinter.println();
-            // use custom PrintStream to add custom prefix + separator
-            if (outPrinter instanceof WrappedPrintWriter) {
-                t.printStackTrace(((WrappedPrintWriter) outPrinter).getWrappingPrintWriter());
-            } else {
-                // use custom PrintStream to add custom prefix + separator
-                t.printStackTrace(((WrappedPrintStream) outPrinter).getWrappingPrintStream());
+        if (metrics != null) {
+            metrics.record(t, hintSource(wrapperHint, defaultHintMessage, hintFrame), start);
+        }
+    }
+
+    /**
+     * @return where the hint of a report comes from, whether it is shown or not
+     */
+    private static HintMetrics.HintSource hintSource(boolean wrapperHint, String defaultHintMessage,
+                                                     StackTraceElement hintFrame) {
+        if (wrapperHint) {
+            return HintMetrics.HintSource.WRAPPER;
+        }
+        if (defaultHintMessage == null) {
+            return HintMetrics.HintSource.NONE;
+        }
+        return HintMessageResolver.isClassHint(hintFrame, defaultHintMessage)
+                ? HintMetrics.HintSource.CLASS_ANNOTATION
+                : HintMetrics.HintSource.METHOD_ANNOTATION;
+    }
+
+    /**
+     * @return exception wrapped by {@code CompletionException} or {@code ExecutionException}, if any
+     */
+    static Throwable unwrapAsyncFailure(Throwable e) {
+        for (int depth = 0; depth < MAX_UNWRAP_DEPTH; depth++) {
+            if (!(e instanceof CompletionException || e instanceof ExecutionException) || e.getCause() == null) {
+                break;
             }
+            e = e.getCause();
         }
+        return e;
+    }
 
+    private void exitOnDemand() {
         // change default exit code on-demand
-        if (hintCommandProperties.getDefaultExitCode() != 1) {
-            System.exit(hintCommandProperties.getDefaultExitCode());
+        final int exitCode = config.getRenderer().getDefaultExitCode();
+        if (exitCode != 1) {
+            config.getExitStrategy().exit(exitCode, this::flush);
         }
     }
 
-    static boolean isBlank(String value) {
-        return value == null || value.length() == 0 || value.trim().length() == 0;
+    /**
+     * Prints pending reports and summaries of repeated occurrences and flushes output, before exiting
+     */
+    private void flush() {
+        // a halted JVM runs no shutdown hook, which would print them
+        ReportDeduplicator deduplicator = config.getDeduplicator();
+        if (deduplicator != null) {
+            deduplicator.printSummaries();
+        }
+        drain(config.getAsyncWriter());
+        drain(config.getVirtualThreadWriter());
+        flush(config.getBinarySink());
+        if (printWriter != null) {
+            printWriter.flush();
+        }
+        System.err.flush();
     }
 
-    private String resolveMsg(String prefix, String msg) {
-        return resolveMsg(prefix, msg, true);
+    private static void drain(AsyncReportWriter asyncWriter) {
+        if (asyncWriter != null) {
+            asyncWriter.drain();
+        }
     }
 
-    private String resolveMsg(String prefix, String msg, boolean startWithLineBreak) {
-        final String lineSeparator = "\n";
-        return (startWithLineBreak ? lineSeparator : "")
-                + prefix + msg.replace(lineSeparator, lineSeparator + prefix);
+    private static void flush(BinaryReportSink binarySink) {
+        if (binarySink != null) {
+            try {
+                binarySink.flush();
+            } catch (IOException ignored) {
+                // reports which could not be written were printed
+            }
+        }
+    }
+
+    static boolean isBlank(String value) {
+        return value == null || value.length() == 0 || value.trim().length() == 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,185 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.annotation.HintMessage;
+import io.hint.annotation.HintMessageIndex;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * <p>Resolves default hint messages declared with {@link HintMessage} on the class and method
+ * found at the top of a stacktrace.</p>
+ *
+ * <p>Messages of classes compiled with {@code take-a-hint-codegen} are looked up in the generated
+ * {@link HintMessageIndex} of their compilation, without any reflection, including classes which
+ * declare no message.</p>
+ *
+ * <p>Annotations of other classes (compiled without the processor, or generated by other processors)
+ * are read only once: the resolved messages are kept in a {@link ClassValue},
+ * so classes without any {@code HintMessage} are cached as well and classes loaded by
+ * short-lived class loaders can still be unloaded.</p>
+ */
+final class HintMessageResolver {
+    private static final HintMessageIndex[] NO_INDEXES = new HintMessageIndex[0];
+    private static final ClassValue<ClassHints> CLASS_HINTS = new ClassValue<ClassHints>() {
+        @Override
+        protected ClassHints computeValue(Class<?> type) {
+            return ClassHints.of(type);
+        }
+    };
+
+    private HintMessageResolver() {
+    }
+
+    /**
+     * @param frame stacktrace element where the handled exception was thrown
+     * @return hint message declared on the method (or else on the class) of the given frame,
+     * {@code null} if there is none
+     */
+    static String resolve(StackTraceElement frame) {
+        return resolve(frame, IndexHolder.INDEXES);
+    }
+
+    static String resolve(StackTraceElement frame, HintMessageIndex... indexes) {
+        boolean indexed = false;
+        for (HintMessageIndex index : indexes) {
+            String hint = index.getHintMessage(frame.getClassName(), frame.getMethodName());
+            if (hint != null) {
+                return hint;
+            }
+            indexed = indexed || index.isIndexed(frame.getClassName());
+        }
+        if (indexed) {
+            // compiled with an index, the class declares no message for this method
+            return null;
+        }
+        Class<?> clsType = loadClass(frame);
+        return clsType == null ? null : CLASS_HINTS.get(clsType).get(frame.getMethodName());
+    }
+
+    /**
+     * @param frame stacktrace element where the handled exception was thrown
+     * @param hint  hint message resolved for the given frame
+     * @return {@code true} if given hint is the one declared on the class of the frame
+     * (a method message identical to its class message counts as the class message)
+     */
+    static boolean isClassHint(StackTraceElement frame, String hint) {
+        return hint.equals(resolveClassHint(frame, IndexHolder.INDEXES));
+    }
+
+    static String resolveClassHint(StackTraceElement frame, HintMessageIndex... indexes) {
+        boolean indexed = false;
+        for (HintMessageIndex index : indexes) {
+            // static initializers cannot be annotated, so the class message is returned
+            String hint = index.getHintMessage(frame.getClassName(), "<clinit>");
+            if (hint != null) {
+                return hint;
+            }
+            indexed = indexed || index.isIndexed(frame.getClassName());
+        }
+        if (indexed) {
+            return null;
+        }
+        Class<?> clsType = loadClass(frame);
+        return clsType == null ? null : CLASS_HINTS.get(clsType).classHint;
+    }
+
+    private static Class<?> loadClass(StackTraceElement frame) {
+        try {
+            return Class.forName(frame.getClassName(), false, HintMessageResolver.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Loads the generated indexes once, on first lookup
+     */
+    private static final class IndexHolder {
+        private static final HintMessageIndex[] INDEXES = load();
+
+        private static HintMessageIndex[] load() {
+            List<HintMessageIndex> indexes = new ArrayList<>();
+            Iterator<HintMessageIndex> providers =
+                    ServiceLoader.load(HintMessageIndex.class, HintMessageResolver.class.getClassLoader()).iterator();
+            while (true) {
+                try {
+                    if (!providers.hasNext()) {
+                        break;
+                    }
+                    indexes.add(providers.next());
+                } catch (ServiceConfigurationError | LinkageError ignored) {
+                    // an index which can't be loaded is skipped, its classes are resolved using reflection
+                }
+            }
+            return indexes.isEmpty() ? NO_INDEXES : indexes.toArray(NO_INDEXES);
+        }
+    }
+
+    /**
+     * Hint messages of a single class, method messages are already merged with the class message.
+     */
+    static final class ClassHints {
+        private static final ClassHints NONE = new ClassHints(Collections.emptyMap(), null);
+
+        private final Map<String, String> methodHints;
+        private final String classHint;
+
+        private ClassHints(Map<String, String> methodHints, String classHint) {
+            this.methodHints = methodHints;
+            this.classHint = classHint;
+        }
+
+        static ClassHints of(Class<?> type) {
+            String classHint = null;
+            HintMessage hintMessage = type.getAnnotation(HintMessage.class);
+            if (hintMessage != null && !HintExceptionHandler.isBlank(hintMessage.value())) {
+                classHint = hintMessage.value();
+            }
+            Map<String, String> methodHints = new HashMap<>();
+            try {
+                for (Method method : type.getDeclaredMethods()) {
+                    hintMessage = method.getAnnotation(HintMessage.class);
+                    // a blank method message falls back to the class message,
+                    // overloaded methods keep the first non-blank message
+                    if (hintMessage != null && !HintExceptionHandler.isBlank(hintMessage.value())) {
+                        methodHints.putIfAbsent(method.getName(), hintMessage.value());
+                    }
+                }
+            } catch (LinkageError ignored) {
+                // a method signature refers to a missing class, only the class message is usable
+                methodHints.clear();
+            }
+            if (classHint == null && methodHints.isEmpty()) {
+                return NONE;
+            }
+            return new ClassHints(methodHints.isEmpty() ? Collections.emptyMap() : methodHints, classHint);
+        }
+
+        String get(String methodName) {
+            return methodHints.getOrDefault(methodName, classHint);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Counts exceptions handled by {@link HintExceptionHandler}, by exception type and by source of hint,
+ * and measures how long failing threads spend in the handler.</p>
+ *
+ * <p>Counters are {@code LongAdder}s, so threads failing together do not contend on them.
+ * Metrics can be read through JMX once {@link #register() registered}, or dumped in Prometheus text format.</p>
+ *
+ * <p>Example :</p>
+ * <pre>
+ *     HintMetrics metrics = new HintMetrics();
+ *     metrics.register();
+ *     new HintCommand(new Main()).metrics(metrics).init();
+ * </pre>
+ *
+ * <p>Nothing is measured by commands without metrics.</p>
+ */
+public class HintMetrics implements HintMetricsMXBean {
+    /**
+     * Default name of the registered MBean
+     */
+    public static final String OBJECT_NAME = "io.hint:type=HintMetrics";
+
+    // distinct exception types counted at most, others are counted together
+    private static final int MAX_EXCEPTION_TYPES = 256;
+    private static final String OTHER_EXCEPTION_TYPES = "other";
+    // latency buckets bounds: 1us, 2us, 4us ... ~1s, then a last bucket without bound
+    private static final int LATENCY_BOUNDED_BUCKETS = 21;
+    private static final long[] LATENCY_BOUNDS = new long[LATENCY_BOUNDED_BUCKETS];
+
+    static {
+        for (int i = 0; i < LATENCY_BOUNDED_BUCKETS; i++) {
+            LATENCY_BOUNDS[i] = TimeUnit.MICROSECONDS.toNanos(1L << i);
+        }
+    }
+
+    /**
+     * Where the hint of a report comes from
+     */
+    enum HintSource {
+        WRAPPER("wrapper"),
+        METHOD_ANNOTATION("method_annotation"),
+        CLASS_ANNOTATION("class_annotation"),
+        NONE("none");
+
+        private final String label;
+
+        HintSource(String label) {
+            this.label = label;
+        }
+
+        String getLabel() {
+            return label;
+        }
+    }
+
+    private final ConcurrentHashMap<String, LongAdder> reportsByExceptionType = new ConcurrentHashMap<>();
+    private final LongAdder[] reportsByHintSource = newAdders(HintSource.values().length);
+    private final LongAdder[] latencyBuckets = newAdders(LATENCY_BOUNDED_BUCKETS + 1);
+    private final LongAdder totalLatency = new LongAdder();
+    private ObjectName registeredName;
+
+    private static LongAdder[] newAdders(int length) {
+        LongAdder[] adders = new LongAdder[length];
+        for (int i = 0; i < length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * @param t      reported throwable
+     * @param source where its hint comes from
+     * @param start  {@code System.nanoTime()} when the handler was called
+     */
+    void record(Throwable t, HintSource source, long start) {
+        final long latency = System.nanoTime() - start;
+        exceptionTypeCounter(t.getClass().getName()).increment();
+        reportsByHintSource[source.ordinal()].increment();
+        latencyBuckets[latencyBucket(latency)].increment();
+        totalLatency.add(latency);
+    }
+
+    private LongAdder exceptionTypeCounter(String type) {
+        LongAdder counter = reportsByExceptionType.get(type);
+        if (counter == null) {
+            if (reportsByExceptionType.size() >= MAX_EXCEPTION_TYPES) {
+                type = OTHER_EXCEPTION_TYPES;
+            }
+            counter = reportsByExceptionType.computeIfAbsent(type, k -> new LongAdder());
+        }
+        return counter;
+    }
+
+    static int latencyBucket(long latencyNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(latencyNanos - 1);
+        // smallest power of two of microseconds above the latency
+        return Math.min(64 - Long.numberOfLeadingZeros(micros), LATENCY_BOUNDED_BUCKETS);
+    }
+
+    // JMX
+
+    /**
+     * Registers these metrics in the platform MBean server, with name {@value #OBJECT_NAME}
+     *
+     * @throws IllegalStateException if the MBean cannot be registered (e.g. the name is already taken)
+     */
+    public void register() {
+        register(OBJECT_NAME);
+    }
+
+    /**
+     * Registers these metrics in the platform MBean server
+     *
+     * @param objectName name of the MBean
+     * @throws IllegalStateException if the MBean cannot be registered (e.g. the name is already taken)
+     */
+    public synchronized void register(String objectName) {
+        try {
+            ObjectName name = new ObjectName(objectName);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            registeredName = name;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register HintMetrics MBean " + objectName, e);
+        }
+    }
+
+    /**
+     * Unregisters these metrics from the platform MBean server, if registered
+     */
+    public synchronized void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(registeredName);
+        } catch (JMException ignored) {
+            // already unregistered
+        }
+        registeredName = null;
+    }
+
+    @Override
+    public long getReportCount() {
+        long count = 0;
+        for (LongAdder counter : reportsByHintSource) {
+            count += counter.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> getReportsByExceptionType() {
+        Map<String, Long> reports = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> e : reportsByExceptionType.entrySet()) {
+            reports.put(e.getKey(), e.getValue().sum());
+        }
+        return Collections.unmodifiableMap(reports);
+    }
+
+    @Override
+    public Map<String, Long> getReportsByHintSource() {
+        Map<String, Long> reports = new LinkedHashMap<>();
+        for (HintSource source : HintSource.values()) {
+            reports.put(source.label, reportsByHintSource[source.ordinal()].sum());
+        }
+        return Collections.unmodifiableMap(reports);
+    }
+
+    @Override
+    public long[] getLatencyBucketBounds() {
+        return LATENCY_BOUNDS.clone();
+    }
+
+    @Override
+    public long[] getLatencyBucketCounts() {
+        long[] counts = new long[latencyBuckets.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = latencyBuckets[i].sum();
+        }
+        return counts;
+    }
+
+    @Override
+    public long getTotalLatency() {
+        return totalLatency.sum();
+    }
+
+    // Prometheus
+
+    /**
+     * Writes these metrics in Prometheus text format
+     *
+     * @param writer target writer, not closed
+     * @throws IOException if writing fails
+     */
+    public void writePrometheus(Writer writer) throws IOException {
+        writer.write("# HELP hint_reports_total Exceptions handled by Hint, by exception type.\n");
+        writer.write("# TYPE hint_reports_total counter\n");
+        for (Map.Entry<String, Long> e : getReportsByExceptionType().entrySet()) {
+            writer.write("hint_reports_total{exception=\"" + escapeLabel(e.getKey()) + "\"} " + e.getValue() + "\n");
+        }
+
+        writer.write("# HELP hint_reports_by_hint_source_total Exceptions handled by Hint, by source of hint.\n");
+        writer.write("# TYPE hint_reports_by_hint_source_total counter\n");
+        for (Map.Entry<String, Long> e : getReportsByHintSource().entrySet()) {
+            writer.write("hint_reports_by_hint_source_total{source=\"" + e.getKey() + "\"} " + e.getValue() + "\n");
+        }
+
+        writer.write("# HELP hint_handler_duration_seconds Time spent by failing threads in the Hint handler.\n");
+        writer.write("# TYPE hint_handler_duration_seconds histogram\n");
+        long[] counts = getLatencyBucketCounts();
+        long cumulated = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulated += counts[i];
+            String bound = i < LATENCY_BOUNDS.length ? seconds(LATENCY_BOUNDS[i]) : "+Inf";
+            writer.write("hint_handler_duration_seconds_bucket{le=\"" + bound + "\"} " + cumulated + "\n");
+        }
+        writer.write("hint_handler_duration_seconds_sum " + seconds(getTotalLatency()) + "\n");
+        writer.write("hint_handler_duration_seconds_count " + cumulated + "\n");
+    }
+
+    /**
+     * Writes these metrics in Prometheus text format to the given file, e.g. read by node_exporter textfile collector.
+     * The file is replaced atomically when supported by the file system.
+     *
+     * @param file target file
+     * @throws IOException if writing fails
+     */
+    public void dumpPrometheus(Path file) throws IOException {
+        Path absoluteFile = file.toAbsolutePath();
+        Path tmp = Files.createTempFile(absoluteFile.getParent(), absoluteFile.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writePrometheus(writer);
+            }
+            try {
+                Files.move(tmp, absoluteFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, absoluteFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,55 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link HintMetrics}, exposed through JMX
+ */
+public interface HintMetricsMXBean {
+
+    /**
+     * @return number of exceptions handled
+     */
+    long getReportCount();
+
+    /**
+     * @return number of exceptions handled for each exception type
+     */
+    Map<String, Long> getReportsByExceptionType();
+
+    /**
+     * @return number of exceptions handled for each source of hint:
+     * {@code wrapper}, {@code method_annotation}, {@code class_annotation} or {@code none}
+     */
+    Map<String, Long> getReportsByHintSource();
+
+    /**
+     * @return upper bounds in nanoseconds of the handler latency histogram buckets, the last bucket has no bound
+     */
+    long[] getLatencyBucketBounds();
+
+    /**
+     * @return number of exceptions handled within each bucket of the handler latency histogram
+     */
+    long[] getLatencyBucketCounts();
+
+    /**
+     * @return total time in nanoseconds spent by failing threads in the handler
+     */
+    long getTotalLatency();
+}
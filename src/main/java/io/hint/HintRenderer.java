@@ -0,0 +1,220 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.io.PrefixingWriter;
+import io.hint.io.RecordWriter;
+import io.hint.io.StackFrameWriter;
+import io.hint.io.ThrowableSnapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * <p>Immutable renderer compiled once from {@link HintConfig} settings.</p>
+ *
+ * <p>Prefixes, default messages and the documentation block are the same for every report,
+ * so they are resolved here once and each report only appends its own messages.</p>
+ *
+ * <p>Reports are rendered either as text, or as single line records when a structured {@link ReportFormat}
+ * is used.</p>
+ */
+final class HintRenderer {
+    private static final String LINE_SEPARATOR = "\n";
+
+    private final boolean showStackTrace;
+    private final boolean showHints;
+    private final String defaultExceptionMessage;
+    private final int defaultExitCode;
+    private final ReportFormat format;
+    // used as is by structured formats
+    private final int maxStackFrames;
+    private final String docsUrl;
+    // prefix value for [error|hints] + default separator
+    private final String errorPrefix;
+    private final String hintsPrefix;
+    // writes stacktrace using prefix value for stack + default separator
+    private final StackFrameWriter stackFrameWriter;
+    // whole documentation message with its prefixes, null if there is no docs URL
+    private final String docsBlock;
+
+    HintRenderer(HintConfig config) {
+        showStackTrace = config.canShowStackTrace();
+        showHints = config.canShowHints();
+        defaultExceptionMessage = config.getDefaultExceptionMessage();
+        defaultExitCode = config.getDefaultExitCode();
+        format = config.getReportFormat();
+        maxStackFrames = config.getMaxStackFrames();
+        docsUrl = HintExceptionHandler.isBlank(config.getDocsUrl()) ? null : config.getDocsUrl();
+        errorPrefix = config.getErrorPrefix() + config.getDefaultSeparator();
+        hintsPrefix = config.getHintPrefix() + config.getDefaultSeparator();
+        stackFrameWriter = new StackFrameWriter(config.getStackPrefix() + config.getDefaultSeparator(),
+                config.getMaxStackFrames(), config.getCollapsedPackages());
+
+        if (HintExceptionHandler.isBlank(config.getDocsUrl())) {
+            docsBlock = null;
+        } else {
+            final String docsMsg =
+                    (HintExceptionHandler.isBlank(config.getDefaultDocsSeparator())
+                            ? ""
+                            : config.getDefaultDocsSeparator() + LINE_SEPARATOR)
+                            + config.getDefaultDocsMessage() + config.getDocsUrl();
+            StringBuilder sb = new StringBuilder();
+            appendLines(sb, config.getDocsPrefix() + config.getDefaultSeparator(), docsMsg, null);
+            docsBlock = sb.toString();
+        }
+    }
+
+    boolean canShowStackTrace() {
+        return showStackTrace;
+    }
+
+    boolean canShowHints() {
+        return showHints;
+    }
+
+    int getDefaultExitCode() {
+        return defaultExitCode;
+    }
+
+    StackFrameWriter getStackFrameWriter() {
+        return stackFrameWriter;
+    }
+
+    /**
+     * @return {@code true} if reports are rendered as single line records
+     */
+    boolean isStructured() {
+        return format != ReportFormat.TEXT;
+    }
+
+    /**
+     * Appends report as a single line record, without line break
+     *
+     * @param exceptionType class name of the reported exception
+     * @param hintsMsg      {@code null} if there is no hint to show
+     * @param reportId      ID of the record in the journal, {@code null} if there is none
+     * @param notReported   occurrences of the same exception not reported since its last report
+     * @param stackTrace    {@code null} if stacktrace is hidden
+     */
+    void appendRecord(StringBuilder sb, String exceptionType, String errorMsg, String hintsMsg, String reportId,
+                      long notReported, ThrowableSnapshot stackTrace) {
+        final RecordWriter record = newRecord(sb)
+                .field("event", "report")
+                .field("exception", exceptionType)
+                .field("error", errorMsg)
+                .field("hint", hintsMsg)
+                .field("docs", docsUrl)
+                .field("exit_code", defaultExitCode)
+                .field("report_id", reportId);
+        if (notReported > 0) {
+            record.field("not_reported", notReported);
+        }
+        if (stackTrace != null) {
+            int omitted = record.frames("frames", stackTrace, maxStackFrames);
+            if (omitted > 0) {
+                record.field("frames_omitted", omitted);
+            }
+            record.causes("causes", stackTrace);
+        }
+        record.end();
+    }
+
+    private RecordWriter newRecord(StringBuilder sb) {
+        return format == ReportFormat.NDJSON ? RecordWriter.ndjson(sb) : RecordWriter.logfmt(sb);
+    }
+
+    /**
+     * Appends error message, starting with a line break
+     */
+    void appendError(StringBuilder sb, String errorMsg) {
+        sb.append(LINE_SEPARATOR);
+        appendLines(sb, errorPrefix, errorMsg, null);
+    }
+
+    /**
+     * Appends error message for exceptions without custom error message, starting with a line break
+     *
+     * @param detail exception message or class name
+     */
+    void appendDefaultError(StringBuilder sb, String detail) {
+        sb.append(LINE_SEPARATOR);
+        appendLines(sb, errorPrefix, defaultExceptionMessage, detail);
+    }
+
+    /**
+     * Appends count of occurrences of an exception which were not reported,
+     * starting with a line break unless a structured format is used
+     */
+    void appendOccurrences(StringBuilder sb, long count, String description) {
+        if (isStructured()) {
+            newRecord(sb).field("event", "occurrences").field("count", count).field("exception", description).end();
+            return;
+        }
+        sb.append(LINE_SEPARATOR);
+        appendLines(sb, errorPrefix, count + " more occurrences of ", description);
+    }
+
+    /**
+     * Appends count of reports which were discarded, starting with a line break unless a structured format is used
+     */
+    void appendDiscarded(StringBuilder sb, long count) {
+        if (isStructured()) {
+            newRecord(sb).field("event", "discarded").field("count", count).end();
+            return;
+        }
+        sb.append(LINE_SEPARATOR);
+        appendLines(sb, errorPrefix, count + " more reports discarded", null);
+    }
+
+    /**
+     * Appends hints message, starting with a line break
+     */
+    void appendHints(StringBuilder sb, String hintsMsg) {
+        sb.append(LINE_SEPARATOR);
+        appendLines(sb, hintsPrefix, hintsMsg, null);
+    }
+
+    /**
+     * Appends ID of the record of a report in the journal, on the same line
+     */
+    void appendReportId(StringBuilder sb, String reportId) {
+        sb.append(" (report ").append(reportId).append(')');
+    }
+
+    /**
+     * @return documentation message, {@code null} if there is no docs URL
+     */
+    String getDocsBlock() {
+        return docsBlock;
+    }
+
+    /**
+     * Appends given message parts, with prefix at the start of each line
+     */
+    private static void appendLines(StringBuilder sb, String prefix, String msg, String msgContinuation) {
+        sb.append(prefix);
+        try (PrefixingWriter writer = new PrefixingWriter(sb, prefix)) {
+            writer.append(msg);
+            if (msgContinuation != null) {
+                writer.append(msgContinuation);
+            }
+        } catch (IOException e) {
+            // never thrown by StringBuilder
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.io.BinaryRecordReader;
+import io.hint.io.BinaryRecordWriter;
+import io.hint.io.ThrowableSnapshot;
+import io.hint.io.WrappedPrinter;
+
+import java.io.IOException;
+
+/**
+ * <p>Report of a handled exception, with every message already resolved.</p>
+ *
+ * <p>It keeps no reference to the live throwable, so it can be printed later by another thread. The thread
+ * printing the report also appends it to the journal, so failing threads never wait for the journal lock.</p>
+ */
+final class HintReport {
+    // same line separator as println
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int MAX_BUFFER_CAPACITY = 64 * 1024;
+    // each report is rendered in a single buffer, reused by next reports of the same thread
+    private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    /**
+     * What a report prints
+     */
+    private enum Kind {
+        // full report of an exception
+        REPORT,
+        // only the count of occurrences not reported, when they are summarized
+        OCCURRENCES,
+        // only the record of an occurrence in the journal, when it is not reported
+        JOURNAL
+    }
+
+    private final Kind kind;
+    private final HintRenderer renderer;
+    private final WrappedPrinter printer;
+    // null if the report is printed
+    private final BinaryReportSink sink;
+    // occurrences of the same exception not reported since its last report
+    private final long notReported;
+    private final String description;
+    // class name of the reported exception
+    private final String exceptionType;
+    // custom error message, or detail of the default error message if there is none
+    private final String errorMsg;
+    private final boolean defaultError;
+    // null if there is no hint to show
+    private final String hintsMsg;
+    // ID of the record in the journal, null if there is none, assigned by the thread printing the report
+    private String reportId;
+    // null if stacktrace is hidden
+    private final ThrowableSnapshot stackTrace;
+    // committed once the report is printed, null if the event is disabled
+    private final ReportEvent event;
+    // journal the report is appended to before it is printed, null if there is none
+    private final ReportJournal journal;
+    // hint journaled even if it is not shown, and first frame of the stacktrace of the exception
+    private final String journalHint;
+    private final StackTraceElement topFrame;
+
+    HintReport(HintRenderer renderer, WrappedPrinter printer, BinaryReportSink sink,
+               long notReported, String description,
+               String exceptionType, String errorMsg, boolean defaultError, String hintsMsg, String reportId,
+               ThrowableSnapshot stackTrace, ReportEvent event,
+               ReportJournal journal, String journalHint, StackTraceElement topFrame) {
+        this(Kind.REPORT, renderer, printer, sink, notReported, description, exceptionType, errorMsg, defaultError,
+                hintsMsg, reportId, stackTrace, event, journal, journalHint, topFrame);
+    }
+
+    private HintReport(Kind kind, HintRenderer renderer, WrappedPrinter printer, BinaryReportSink sink,
+                       long notReported, String description,
+                       String exceptionType, String errorMsg, boolean defaultError, String hintsMsg, String reportId,
+                       ThrowableSnapshot stackTrace, ReportEvent event,
+                       ReportJournal journal, String journalHint, StackTraceElement topFrame) {
+        this.kind = kind;
+        this.renderer = renderer;
+        this.printer = printer;
+        this.sink = sink;
+        this.notReported = notReported;
+        this.description = description;
+        this.exceptionType = exceptionType;
+        this.errorMsg = errorMsg;
+        this.defaultError = defaultError;
+        this.hintsMsg = hintsMsg;
+        this.reportId = reportId;
+        this.stackTrace = stackTrace;
+        this.event = event;
+        this.journal = journal;
+        this.journalHint = journalHint;
+        this.topFrame = topFrame;
+    }
+
+    /**
+     * @return summary of occurrences of an exception which were not reported, printed as a report
+     */
+    static HintReport occurrences(HintRenderer renderer, WrappedPrinter printer, BinaryReportSink sink,
+                                  long count, String description) {
+        return new HintReport(Kind.OCCURRENCES, renderer, printer, sink, count, description,
+                null, null, false, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * @return occurrence of an exception which is not reported, only appended to the journal
+     */
+    static HintReport journalRecord(ReportJournal journal, String exceptionType, String errorMsg,
+                                    String journalHint, StackTraceElement topFrame) {
+        return new HintReport(Kind.JOURNAL, null, null, null, 0, null,
+                exceptionType, errorMsg, false, null, null, null, null, journal, journalHint, topFrame);
+    }
+
+    /**
+     * @return {@code false} if nothing is printed, the report is only journaled
+     */
+    boolean isPrinted() {
+        return kind != Kind.JOURNAL;
+    }
+
+    void print() {
+        if (kind == Kind.OCCURRENCES) {
+            printOccurrences();
+            return;
+        }
+        final long start = event == null ? 0L : System.nanoTime();
+        if (journal != null) {
+            journal();
+        }
+        if (kind == Kind.JOURNAL) {
+            return;
+        }
+        final long journalEnd = event == null ? 0L : System.nanoTime();
+        if (sink != null && sink.write(this)) {
+            // encoded and written at once
+            commitEvent(journalEnd - start, journalEnd, journalEnd);
+            return;
+        }
+        final StringBuilder sb = buffer();
+        try {
+            render(sb);
+            final long renderEnd = event == null ? 0L : System.nanoTime();
+            printer.printReport(sb);
+            commitEvent(journalEnd - start, journalEnd, renderEnd);
+        } finally {
+            release(sb);
+        }
+    }
+
+    /**
+     * Appends this report to the journal, its ID is then printed with the report
+     */
+    private void journal() {
+        try {
+            reportId = journal.append(exceptionType, errorMsg, journalHint, topFrame);
+        } catch (IOException | RuntimeException | LinkageError | InternalError ignored) {
+            // the report is printed without ID, journaling must not prevent it (a truncated mapping fails with
+            // InternalError)
+        }
+    }
+
+    private void commitEvent(long journalDuration, long renderStart, long renderEnd) {
+        if (event != null) {
+            // journaling is part of writing the report
+            event.commit(renderEnd - renderStart, journalDuration + System.nanoTime() - renderEnd);
+        }
+    }
+
+    /**
+     * Renders the whole report, each line ends with a line separator
+     */
+    private void render(StringBuilder sb) {
+        if (renderer.isStructured()) {
+            // a single line, counts of occurrences included
+            renderer.appendRecord(sb, exceptionType, errorMsg, hintsMsg, reportId, notReported, stackTrace);
+            sb.append(LINE_SEPARATOR);
+            return;
+        }
+
+        // summarize occurrences of this exception since its last report
+        if (notReported > 0) {
+            renderer.appendOccurrences(sb, notReported, description);
+            sb.append(LINE_SEPARATOR);
+        }
+
+        if (defaultError) {
+            renderer.appendDefaultError(sb, errorMsg);
+        } else {
+            renderer.appendError(sb, errorMsg);
+        }
+        // report ID follows the hint, or the error if there is no hint
+        if (hintsMsg == null && reportId != null) {
+            renderer.appendReportId(sb, reportId);
+        }
+        sb.append(LINE_SEPARATOR);
+
+        if (hintsMsg != null) {
+            renderer.appendHints(sb, hintsMsg);
+            if (reportId != null) {
+                renderer.appendReportId(sb, reportId);
+            }
+            sb.append(LINE_SEPARATOR);
+        }
+
+        // if there is a URL for docs, show docs message
+        if (renderer.getDocsBlock() != null) {
+            sb.append(renderer.getDocsBlock()).append(LINE_SEPARATOR);
+        }
+
+        if (stackTrace != null) {
+            sb.append(LINE_SEPARATOR);
+            // write each frame with prefix + separator
+            renderer.getStackFrameWriter().write(stackTrace, sb);
+        }
+    }
+
+    private void printOccurrences() {
+        if (sink != null && sink.writeOccurrences(notReported, description, this::printText)) {
+            return;
+        }
+        printText();
+    }
+
+    /**
+     * Prints this report as text, without writing it to the binary sink: used once the sink fails
+     */
+    void printText() {
+        final StringBuilder sb = buffer();
+        try {
+            if (kind == Kind.OCCURRENCES) {
+                renderer.appendOccurrences(sb, notReported, description);
+                sb.append(LINE_SEPARATOR);
+            } else {
+                render(sb);
+            }
+            printer.printReport(sb);
+        } finally {
+            release(sb);
+        }
+    }
+
+    /**
+     * Prints count of reports discarded because the queue of asynchronous reporting was full
+     */
+    void printDiscarded(long count) {
+        if (sink != null && sink.writeDiscarded(count, () -> printDiscardedText(count))) {
+            return;
+        }
+        printDiscardedText(count);
+    }
+
+    private void printDiscardedText(long count) {
+        final StringBuilder sb = buffer();
+        try {
+            renderer.appendDiscarded(sb, count);
+            sb.append(LINE_SEPARATOR);
+            printer.printReport(sb);
+        } finally {
+            release(sb);
+        }
+    }
+
+    /**
+     * @return empty buffer of the current thread
+     */
+    private static StringBuilder buffer() {
+        StringBuilder sb = BUFFERS.get();
+        sb.setLength(0);
+        return sb;
+    }
+
+    private static void release(StringBuilder sb) {
+        // a buffer grown by a huge report is not kept
+        if (sb.capacity() > MAX_BUFFER_CAPACITY) {
+            BUFFERS.remove();
+        }
+    }
+
+    /**
+     * Writes fields of this report, read back by {@link #read(BinaryRecordReader, HintRenderer, WrappedPrinter)}
+     */
+    void write(BinaryRecordWriter writer) {
+        writer.writeLong(notReported);
+        writer.writeString(description);
+        writer.writeString(exceptionType);
+        writer.writeString(errorMsg);
+        writer.writeBoolean(defaultError);
+        writer.writeString(hintsMsg);
+        writer.writeString(reportId);
+        writer.writeBoolean(stackTrace != null);
+        if (stackTrace != null) {
+            writer.writeSnapshot(stackTrace);
+        }
+    }
+
+    /**
+     * @return report written by {@link #write(BinaryRecordWriter)}, to be printed with given settings
+     */
+    static HintReport read(BinaryRecordReader reader, HintRenderer renderer, WrappedPrinter printer)
+            throws IOException {
+        long notReported = reader.readLong();
+        String description = reader.readString();
+        String exceptionType = reader.readString();
+        String errorMsg = reader.readString();
+        boolean defaultError = reader.readBoolean();
+        String hintsMsg = reader.readString();
+        String reportId = reader.readString();
+        ThrowableSnapshot stackTrace = reader.readBoolean() ? reader.readSnapshot() : null;
+        return new HintReport(renderer, printer, null, notReported, description, exceptionType,
+                errorMsg, defaultError, hintsMsg, reportId, stackTrace, null, null, null, null);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+/**
+ * <p>Handler installed by {@link HintCommand#init()}, creating the {@link HintExceptionHandler}
+ * when the first exception is handled.</p>
+ *
+ * <p>Most runs of a command-line application never fail: this stub keeps annotations, renderers and output
+ * classes out of their startup path.</p>
+ */
+final class LazyExceptionHandler implements Thread.UncaughtExceptionHandler {
+    private final HintCommand hintCommand;
+    private volatile HintExceptionHandler handler;
+
+    LazyExceptionHandler(HintCommand hintCommand) {
+        this.hintCommand = hintCommand;
+    }
+
+    @Override
+    public void uncaughtException(Thread thread, Throwable e) {
+        HintExceptionHandler h = handler;
+        if (h == null) {
+            synchronized (this) {
+                h = handler;
+                if (h == null) {
+                    // settings are frozen by the first exception
+                    h = new HintExceptionHandler(hintCommand.getConfig());
+                    handler = h;
+                }
+            }
+        }
+        h.uncaughtException(thread, e);
+    }
+}
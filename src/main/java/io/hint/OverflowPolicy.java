@@ -0,0 +1,36 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+/**
+ * Behavior of asynchronous reporting when the queue of pending reports is full
+ *
+ * @see HintCommand#asyncReporting(int, OverflowPolicy)
+ */
+public enum OverflowPolicy {
+    /**
+     * Discards the new report
+     */
+    DISCARD_NEWEST,
+    /**
+     * Discards the oldest pending report to make room for the new one
+     */
+    DISCARD_OLDEST,
+    /**
+     * Prints the new report on the failing thread, like synchronous reporting does
+     */
+    CALLER_RUNS
+}
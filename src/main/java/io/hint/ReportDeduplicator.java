@@ -0,0 +1,233 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.io.WrappedPrinter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Counts reports of the same exception (same type, message and top frames) to avoid printing them repeatedly.</p>
+ *
+ * <p>The first occurrence of an exception is reported in full, next occurrences within the deduplication window
+ * are only counted. The count is summarized with the next full report of the same exception,
+ * when the deduplicator is closed or when the JVM shuts down, with the printer of the occurrences it counts.</p>
+ */
+final class ReportDeduplicator {
+    // distinct exceptions tracked at most, others are always reported in full
+    private static final int MAX_FINGERPRINTS = 1024;
+    // number of top frames identifying an exception
+    private static final int FINGERPRINT_FRAMES = 3;
+    // deduplicators with occurrences counted, summarized by a single shutdown hook
+    private static final Set<ReportDeduplicator> COUNTING =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private static final AtomicBoolean SHUTDOWN_HOOK_REGISTERED = new AtomicBoolean();
+
+    private final long windowNanos;
+    private final LongSupplier clock;
+    private final SummaryPrinter summaryPrinter;
+    private final ConcurrentHashMap<Fingerprint, Occurrences> occurrences = new ConcurrentHashMap<>();
+    private final AtomicBoolean counting = new AtomicBoolean();
+
+    /**
+     * Prints occurrences which were not reported
+     */
+    interface SummaryPrinter {
+        /**
+         * @param printer     printer of the last occurrence
+         * @param asyncWriter writer of the last occurrence, {@code null} if it was printed by the failing thread
+         */
+        void print(long count, String description, WrappedPrinter printer, AsyncReportWriter asyncWriter);
+    }
+
+    ReportDeduplicator(long windowMillis, SummaryPrinter summaryPrinter) {
+        this(windowMillis, summaryPrinter, System::nanoTime);
+    }
+
+    ReportDeduplicator(long windowMillis, SummaryPrinter summaryPrinter, LongSupplier clock) {
+        this.windowNanos = windowMillis * 1_000_000L;
+        this.summaryPrinter = summaryPrinter;
+        this.clock = clock;
+    }
+
+    /**
+     * @param t           reported throwable
+     * @param printer     printer of the report, used to summarize occurrences which are not reported
+     * @param asyncWriter writer of the report, {@code null} if it is printed by the failing thread
+     * @return {@code -1} if this occurrence should not be reported, otherwise number of occurrences
+     * not reported since the last full report of the same exception
+     */
+    long register(Throwable t, WrappedPrinter printer, AsyncReportWriter asyncWriter) {
+        Fingerprint fingerprint = new Fingerprint(t);
+        long now = clock.getAsLong();
+        Occurrences o = occurrences.get(fingerprint);
+        if (o == null) {
+            if (occurrences.size() >= MAX_FINGERPRINTS) {
+                return 0;
+            }
+            Occurrences previous = occurrences.putIfAbsent(fingerprint, new Occurrences(now));
+            if (previous == null) {
+                return 0;
+            }
+            o = previous;
+        }
+
+        long windowStart = o.windowStart.get();
+        // a single thread starts the next window, others are counted in it
+        if (now - windowStart >= windowNanos && o.windowStart.compareAndSet(windowStart, now)) {
+            return o.notReported.sumThenReset();
+        }
+        o.printer = printer;
+        o.asyncWriter = asyncWriter;
+        o.notReported.increment();
+        if (!counting.get() && counting.compareAndSet(false, true)) {
+            summarizeOnShutdown(this);
+        }
+        return -1;
+    }
+
+    /**
+     * @return short description of an exception, used to summarize its occurrences
+     */
+    static String describe(Throwable t) {
+        return describe(t.getClass().getName(), t.getMessage());
+    }
+
+    private static String describe(String type, String message) {
+        return message == null ? type : type + ": " + message;
+    }
+
+    /**
+     * Prints summary of all occurrences not reported yet, and waits until summaries queued for asynchronous
+     * reporting are printed
+     */
+    void printSummaries() {
+        List<AsyncReportWriter> asyncWriters = new ArrayList<>(2);
+        for (Map.Entry<Fingerprint, Occurrences> e : occurrences.entrySet()) {
+            Occurrences o = e.getValue();
+            long count = o.notReported.sumThenReset();
+            if (count > 0) {
+                AsyncReportWriter asyncWriter = o.asyncWriter;
+                summaryPrinter.print(count, e.getKey().getDescription(), o.printer, asyncWriter);
+                if (asyncWriter != null && !asyncWriters.contains(asyncWriter)) {
+                    asyncWriters.add(asyncWriter);
+                }
+            }
+        }
+        for (AsyncReportWriter asyncWriter : asyncWriters) {
+            asyncWriter.drain();
+        }
+    }
+
+    /**
+     * Prints summary of all occurrences not reported yet, this deduplicator is not summarized on shutdown anymore
+     * unless it counts new occurrences
+     */
+    void close() {
+        COUNTING.remove(this);
+        counting.set(false);
+        printSummaries();
+    }
+
+    private static void summarizeOnShutdown(ReportDeduplicator deduplicator) {
+        COUNTING.add(deduplicator);
+        if (!SHUTDOWN_HOOK_REGISTERED.get() && SHUTDOWN_HOOK_REGISTERED.compareAndSet(false, true)) {
+            try {
+                Runtime.getRuntime().addShutdownHook(
+                        new Thread(ReportDeduplicator::printAllSummaries, "hint-report-summary"));
+            } catch (IllegalStateException | SecurityException ignored) {
+                // JVM is already shutting down, or hooks are not allowed
+            }
+        }
+    }
+
+    private static void printAllSummaries() {
+        ReportDeduplicator[] deduplicators;
+        synchronized (COUNTING) {
+            deduplicators = COUNTING.toArray(new ReportDeduplicator[0]);
+        }
+        for (ReportDeduplicator deduplicator : deduplicators) {
+            deduplicator.printSummaries();
+        }
+    }
+
+    private static final class Occurrences {
+        private final AtomicLong windowStart;
+        private final LongAdder notReported = new LongAdder();
+        // output of the last occurrence not reported
+        private volatile WrappedPrinter printer;
+        private volatile AsyncReportWriter asyncWriter;
+
+        private Occurrences(long windowStart) {
+            this.windowStart = new AtomicLong(windowStart);
+        }
+    }
+
+    /**
+     * Identifies an exception by its type, message and top frames
+     */
+    static final class Fingerprint {
+        private final String type;
+        private final String message;
+        private final StackTraceElement[] topFrames;
+        private final int hash;
+
+        Fingerprint(Throwable t) {
+            type = t.getClass().getName();
+            message = t.getMessage();
+            StackTraceElement[] trace = t.getStackTrace();
+            topFrames = Arrays.copyOf(trace, Math.min(trace.length, FINGERPRINT_FRAMES));
+            int h = type.hashCode();
+            h = 31 * h + (message == null ? 0 : message.hashCode());
+            hash = 31 * h + Arrays.hashCode(topFrames);
+        }
+
+        String getDescription() {
+            return describe(type, message);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Fingerprint)) {
+                return false;
+            }
+            Fingerprint that = (Fingerprint) o;
+            return hash == that.hash
+                    && type.equals(that.type)
+                    && (message == null ? that.message == null : message.equals(that.message))
+                    && Arrays.equals(topFrames, that.topFrames);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+/**
+ * <p>Flight Recorder event of a report, with the duration of each phase of {@link HintExceptionHandler}.</p>
+ *
+ * <p>This class is replaced by its Java 11 version in the multi-release JAR,
+ * this version is used by Java 8 which has no {@code jdk.jfr} API: no event is ever emitted.</p>
+ */
+final class ReportEvent {
+
+    private ReportEvent() {
+    }
+
+    /**
+     * @return started event, {@code null} if the event is disabled
+     */
+    static ReportEvent start() {
+        return null;
+    }
+
+    /**
+     * Sets fields known by the failing thread, before the report is printed
+     *
+     * @param exceptionClass    class of the reported exception
+     * @param hintSource        where the hint comes from
+     * @param suppressed        {@code true} if the report was suppressed as a repeated occurrence
+     * @param stackTracePrinted {@code true} if the stacktrace was printed
+     * @param exitCode          exit code used when the handler exits the application
+     * @param lookupDuration    nanoseconds spent looking up hint and error messages
+     * @param prepareDuration   nanoseconds spent deduplicating the report, copying the stacktrace
+     */
+    void describe(Class<?> exceptionClass, String hintSource, boolean suppressed, boolean stackTracePrinted,
+                  int exitCode, long lookupDuration, long prepareDuration) {
+    }
+
+    /**
+     * Ends and commits the event, once the report is printed
+     *
+     * @param renderDuration nanoseconds spent rendering the report
+     * @param writeDuration  nanoseconds spent journaling and writing the report
+     */
+    void commit(long renderDuration, long writeDuration) {
+    }
+}
@@ -0,0 +1,36 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+/**
+ * Output format of reports
+ *
+ * @see HintCommand#reportFormat(ReportFormat)
+ */
+public enum ReportFormat {
+    /**
+     * Human readable text, each line starting with a prefix
+     */
+    TEXT,
+    /**
+     * A single line JSON object for each report (newline delimited JSON)
+     */
+    NDJSON,
+    /**
+     * A single line of {@code key=value} pairs for each report
+     */
+    LOGFMT
+}
@@ -0,0 +1,185 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Memory-mapped, append-only journal of reports, shared by all processes using the same file.</p>
+ *
+ * <p>A process reserves room for its record while holding a short lock on the journal header,
+ * then copies the record into the mapped file without any lock. Each record is identified by a compact
+ * report ID, printed with the report so that users can refer to it. Use {@link ReportJournalReader}
+ * to read records back or to summarize the journal.</p>
+ *
+ * <p>Records hold the time, exception type, error message, hint and top frame of each handled exception,
+ * repeated occurrences included. A single journal instance should be used for a file by each JVM.</p>
+ *
+ * @see HintCommand#journal(ReportJournal)
+ */
+public final class ReportJournal implements Closeable {
+    static final int MAGIC = 0x484E544A; // HNTJ
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    // offset of the end of reserved records, in the header
+    static final int END_OFFSET = 8;
+    // length and commit flag of each record
+    static final int RECORD_HEADER_SIZE = 8;
+    static final int COMMITTED = 1;
+    // the file is grown and remapped by steps
+    private static final int GROWTH = 1024 * 1024;
+    private static final long MAX_SIZE = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+    private MappedByteBuffer mapping;
+
+    private ReportJournal(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * @param file journal file, created if it does not exist
+     * @return journal appending records to given file
+     * @throws IOException if the file cannot be opened, or is not a journal
+     */
+    public static ReportJournal open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ReportJournal journal = new ReportJournal(channel);
+        try {
+            journal.init();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    private synchronized void init() throws IOException {
+        try (FileLock ignored = channel.lock(0, HEADER_SIZE, false)) {
+            // any other file is left as is
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // read whole header
+            }
+            boolean created = header.position() == 0 || header.getInt(0) == 0;
+            if (!created && (header.position() < HEADER_SIZE
+                    || header.getInt(0) != MAGIC || header.getInt(4) != VERSION)) {
+                throw new IOException("Not a journal of reports");
+            }
+            mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), GROWTH));
+            if (created) {
+                mapping.putInt(4, VERSION);
+                mapping.putLong(END_OFFSET, HEADER_SIZE);
+                mapping.putInt(0, MAGIC);
+            }
+        }
+    }
+
+    /**
+     * Appends a record of a handled exception
+     *
+     * @return report ID, {@code null} if the journal is full
+     * @throws IOException if the journal cannot be written
+     */
+    String append(String exceptionType, String errorMsg, String hintsMsg, StackTraceElement topFrame)
+            throws IOException {
+        final byte[] record = encode(System.currentTimeMillis(), exceptionType, errorMsg, hintsMsg,
+                topFrame == null ? null : topFrame.toString());
+        final ByteBuffer target;
+        final long offset;
+        synchronized (this) {
+            if (!channel.isOpen()) {
+                throw new IOException("Journal closed");
+            }
+            try (FileLock ignored = channel.lock(0, HEADER_SIZE, false)) {
+                offset = mapping.getLong(END_OFFSET);
+                long end = offset + RECORD_HEADER_SIZE + align(record.length);
+                if (end > MAX_SIZE) {
+                    return null;
+                }
+                if (end > mapping.capacity()) {
+                    // grown by other processes, or too small for this record
+                    long size = Math.min(MAX_SIZE, Math.max(channel.size(), (end + GROWTH - 1) / GROWTH * GROWTH));
+                    mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                }
+                mapping.putLong(END_OFFSET, end);
+                mapping.putInt((int) offset, record.length);
+            }
+            target = mapping.duplicate();
+        }
+        // the record is copied outside the lock, then committed
+        target.position((int) offset + RECORD_HEADER_SIZE);
+        target.put(record);
+        target.putInt((int) offset + 4, COMMITTED);
+        return toReportId(offset);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    static String toReportId(long offset) {
+        return Long.toString(offset, Character.MAX_RADIX);
+    }
+
+    /**
+     * @return offset of given report ID, {@code -1} if it is not valid
+     */
+    static long toOffset(String reportId) {
+        try {
+            return Long.parseLong(reportId, Character.MAX_RADIX);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static long align(long length) {
+        return (length + 7) & ~7L;
+    }
+
+    private static byte[] encode(long time, String exceptionType, String errorMsg, String hintsMsg,
+                                 String topFrame) {
+        byte[][] strings = {bytes(exceptionType), bytes(errorMsg), bytes(hintsMsg), bytes(topFrame)};
+        int length = 8;
+        for (byte[] s : strings) {
+            length += 4 + (s == null ? 0 : s.length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putLong(time);
+        for (byte[] s : strings) {
+            if (s == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(s.length).put(s);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static byte[] bytes(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+}
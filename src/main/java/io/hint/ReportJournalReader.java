@@ -0,0 +1,296 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static io.hint.ReportJournal.COMMITTED;
+import static io.hint.ReportJournal.END_OFFSET;
+import static io.hint.ReportJournal.HEADER_SIZE;
+import static io.hint.ReportJournal.MAGIC;
+import static io.hint.ReportJournal.RECORD_HEADER_SIZE;
+import static io.hint.ReportJournal.VERSION;
+
+/**
+ * <p>Reads records of a {@link ReportJournal}, while processes may still append to it.</p>
+ *
+ * <p>The journal is mapped read-only and records are decoded one at a time, so reading does not load the whole
+ * file in memory. Records still being written are skipped.</p>
+ *
+ * <p>It can also be run to summarize a journal, printing its most frequent errors and hints:</p>
+ * <pre>
+ * java -cp take-a-hint.jar io.hint.ReportJournalReader [--top=N] journal-file
+ * </pre>
+ */
+public final class ReportJournalReader implements Closeable {
+    static final int DEFAULT_TOP = 10;
+    // distinct errors and hints counted at most, others are counted together
+    private static final int MAX_DISTINCT = 10_000;
+    private static final String OTHERS = "(others)";
+
+    private final FileChannel channel;
+
+    private ReportJournalReader(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * @param file journal file
+     * @return reader of given journal
+     * @throws IOException if the file cannot be opened, or is not a journal
+     */
+    public static ReportJournalReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        ReportJournalReader reader = new ReportJournalReader(channel);
+        try {
+            ByteBuffer header = reader.map(HEADER_SIZE);
+            if (header.capacity() < HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a journal of reports");
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return reader;
+    }
+
+    /**
+     * @param reportId ID printed with a report
+     * @return record of given report, {@code null} if there is no such record
+     * @throws IOException if the journal cannot be read
+     */
+    public Entry read(String reportId) throws IOException {
+        ByteBuffer journal = map(end());
+        long offset = ReportJournal.toOffset(reportId);
+        // IDs are record offsets, only those of records already met are valid
+        long position = HEADER_SIZE;
+        while (position < journal.limit() && position <= offset) {
+            int length = journal.getInt((int) position);
+            if (length <= 0) {
+                break;
+            }
+            if (position == offset) {
+                return journal.getInt((int) position + 4) == COMMITTED ? decode(journal, (int) position, length) : null;
+            }
+            position += RECORD_HEADER_SIZE + ReportJournal.align(length);
+        }
+        return null;
+    }
+
+    /**
+     * Reads every committed record, in the order they were reserved
+     *
+     * @throws IOException if the journal cannot be read
+     */
+    public void forEach(Consumer<Entry> action) throws IOException {
+        ByteBuffer journal = map(end());
+        long position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= journal.limit()) {
+            int length = journal.getInt((int) position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > journal.limit()) {
+                // reserved by a process which did not write its record yet
+                break;
+            }
+            if (journal.getInt((int) position + 4) == COMMITTED) {
+                action.accept(decode(journal, (int) position, length));
+            }
+            position += RECORD_HEADER_SIZE + ReportJournal.align(length);
+        }
+    }
+
+    /**
+     * Prints count of records, with the most frequent errors and hints
+     *
+     * @param top number of errors and hints printed at most
+     * @throws IOException if the journal cannot be read
+     */
+    public void summarize(int top, PrintStream out) throws IOException {
+        final Map<String, long[]> errors = new HashMap<>();
+        final Map<String, long[]> hints = new HashMap<>();
+        final long[] count = new long[1];
+        forEach(entry -> {
+            count[0]++;
+            // error messages may already start with the exception type
+            String error = entry.getError();
+            if (error == null) {
+                error = entry.getExceptionType();
+            } else if (!error.startsWith(entry.getExceptionType())) {
+                error = entry.getExceptionType() + ": " + error;
+            }
+            increment(errors, error);
+            if (entry.getHint() != null) {
+                increment(hints, entry.getHint());
+            }
+        });
+        out.println("Reports: " + count[0]);
+        printTop(out, "Top errors:", errors, top);
+        printTop(out, "Top hints:", hints, top);
+    }
+
+    private static void increment(Map<String, long[]> counts, String key) {
+        long[] count = counts.get(key);
+        if (count == null) {
+            count = counts.computeIfAbsent(counts.size() < MAX_DISTINCT ? key : OTHERS, k -> new long[1]);
+        }
+        count[0]++;
+    }
+
+    private static void printTop(PrintStream out, String title, Map<String, long[]> counts, int top) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        out.println(title);
+        for (Map.Entry<String, long[]> e : entries.subList(0, Math.min(top, entries.size()))) {
+            out.println(String.format("%8d  %s", e.getValue()[0], e.getKey().replace('\n', ' ')));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @return end of records reserved so far
+     */
+    private long end() throws IOException {
+        return Math.min(map(HEADER_SIZE).getLong(END_OFFSET), channel.size());
+    }
+
+    private ByteBuffer map(long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, channel.size()));
+    }
+
+    private static Entry decode(ByteBuffer journal, int position, int length) {
+        ByteBuffer record = journal.duplicate();
+        record.limit(position + RECORD_HEADER_SIZE + length).position(position + RECORD_HEADER_SIZE);
+        long time = record.getLong();
+        return new Entry(ReportJournal.toReportId(position), time,
+                readString(record), readString(record), readString(record), readString(record));
+    }
+
+    private static String readString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Prints summary of a journal
+     *
+     * @param args {@code [--top=N] journal-file}
+     */
+    public static void main(String[] args) throws IOException {
+        int top = DEFAULT_TOP;
+        Path file = null;
+        for (String arg : args) {
+            if (arg.startsWith("--top=")) {
+                top = Integer.parseInt(arg.substring("--top=".length()));
+            } else {
+                file = Paths.get(arg);
+            }
+        }
+        if (file == null) {
+            System.err.println("Usage: ReportJournalReader [--top=N] journal-file");
+            System.exit(2);
+        }
+        try (ReportJournalReader reader = open(file)) {
+            reader.summarize(top, System.out);
+        }
+    }
+
+    /**
+     * Record of a handled exception
+     */
+    public static final class Entry {
+        private final String reportId;
+        private final long time;
+        private final String exceptionType;
+        private final String error;
+        private final String hint;
+        private final String topFrame;
+
+        Entry(String reportId, long time, String exceptionType, String error, String hint, String topFrame) {
+            this.reportId = reportId;
+            this.time = time;
+            this.exceptionType = exceptionType;
+            this.error = error;
+            this.hint = hint;
+            this.topFrame = topFrame;
+        }
+
+        /**
+         * @return ID printed with the report
+         */
+        public String getReportId() {
+            return reportId;
+        }
+
+        /**
+         * @return time of the report, in milliseconds since the epoch
+         */
+        public long getTime() {
+            return time;
+        }
+
+        /**
+         * @return class name of the reported exception
+         */
+        public String getExceptionType() {
+            return exceptionType;
+        }
+
+        /**
+         * @return error message of the report
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * @return hint of the report, shown or not, {@code null} if there is none
+         */
+        public String getHint() {
+            return hint;
+        }
+
+        /**
+         * @return top frame of the reported exception, {@code null} if it has no stacktrace
+         */
+        public String getTopFrame() {
+            return topFrame;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint.annotation;
+
+/**
+ * <p>Naming convention of the configuration classes generated at compile time by {@code take-a-hint-codegen}.</p>
+ *
+ * <p>For each class annotated with {@link Hint}, a class implementing {@code Hint} and returning the annotation
+ * values as constants is generated in the same package, so {@code HintCommand} can be configured
+ * without reading annotations using reflection.</p>
+ */
+public final class GeneratedHintConfig {
+    /**
+     * Suffix appended to the name of the annotated class
+     */
+    public static final String CLASS_SUFFIX = "_HintConfig";
+    /**
+     * Version of the {@link Hint} attributes, incremented whenever an attribute is added: a class generated
+     * for another version lacks attributes, it is ignored and the annotation is read instead
+     */
+    public static final int VERSION = 1;
+    /**
+     * Name of the {@code public static final int} constant holding the {@link #VERSION} a class was generated for
+     */
+    public static final String VERSION_FIELD = "HINT_VERSION";
+
+    private GeneratedHintConfig() {
+    }
+
+    /**
+     * @param binaryName binary name of the class annotated with {@code Hint} (e.g {@code com.acme.Main$Cli})
+     * @return fully qualified name of the generated configuration class (e.g {@code com.acme.Main_Cli_HintConfig})
+     */
+    public static String getClassName(String binaryName) {
+        return binaryName.replace('$', '_') + CLASS_SUFFIX;
+    }
+}
@@ -51,6 +51,29 @@ public @interface Hint {
      */
     boolean showHints() default true;
 
+    /**
+     * Sets maximum number of frames shown for each exception in stacktrace, {@code 0} for no limit
+     *
+     * @return maximum number of frames
+     */
+    int maxStackFrames() default 0;
+
+    /**
+     * Sets packages whose consecutive frames are collapsed into a single line in stacktrace
+     * (e.g {@code sun.reflect}, {@code picocli}), subpackages included
+     *
+     * @return collapsed packages
+     */
+    String[] collapsedPackages() default {};
+
+    /**
+     * Sets window (in milliseconds) during which repeated reports of the same exception are only counted,
+     * {@code 0} to report each exception in full
+     *
+     * @return deduplication window
+     */
+    long deduplicationWindow() default 0;
+
     // default messages
 
     /**
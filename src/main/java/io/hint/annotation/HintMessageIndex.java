@@ -0,0 +1,47 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint.annotation;
+
+/**
+ * <p>Index of the {@link HintMessage} values of a compilation unit set, generated at compile time
+ * by {@code take-a-hint-codegen} and registered as a {@link java.util.ServiceLoader} provider.</p>
+ *
+ * <p>Each compilation (e.g. a library, an application and its tests) has its own index.
+ * {@code HintExceptionHandler} looks up default hint messages in all indexes found on the classpath,
+ * and reads annotations using reflection only for classes which are in none of them.</p>
+ *
+ * <p>An index also lists the classes of its compilation which declare no message, so that they are
+ * not read using reflection either.</p>
+ */
+public interface HintMessageIndex {
+    /**
+     * Method level message overrides its parent at class level.
+     *
+     * @param className  binary name of the class, as found in stacktrace elements
+     * @param methodName name of the method, as found in stacktrace elements
+     * @return hint message declared for the given method or class, {@code null} if there is none
+     */
+    String getHintMessage(String className, String methodName);
+
+    /**
+     * @param className binary name of the class, as found in stacktrace elements
+     * @return {@code true} if the given class was compiled with this index, so that it declares no message
+     * unless {@link #getHintMessage(String, String)} returns one
+     */
+    default boolean isIndexed(String className) {
+        return false;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint.concurrent;
+
+import io.hint.HintConfig;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>{@code ScheduledThreadPoolExecutor} reporting failed tasks with Hint.</p>
+ *
+ * <p>All tasks of a scheduled executor keep their exception in their {@code Future}: a failed task is reported
+ * once done, a failed periodic task is reported when its executions stop.</p>
+ */
+public class HintScheduledThreadPoolExecutor extends ScheduledThreadPoolExecutor {
+    private final HintThreadFactory hintThreadFactory;
+
+    public HintScheduledThreadPoolExecutor(int corePoolSize, HintConfig config) {
+        this(corePoolSize, Executors.defaultThreadFactory(), config);
+    }
+
+    /**
+     * @param threadFactory factory creating worker threads, the Hint exception handler is set on each of them
+     * @param config        settings used to report exceptions
+     */
+    public HintScheduledThreadPoolExecutor(int corePoolSize, ThreadFactory threadFactory, HintConfig config) {
+        this(corePoolSize, new HintThreadFactory(config, threadFactory));
+    }
+
+    private HintScheduledThreadPoolExecutor(int corePoolSize, HintThreadFactory hintThreadFactory) {
+        super(corePoolSize, hintThreadFactory);
+        this.hintThreadFactory = hintThreadFactory;
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        TaskFailures.report(r, t, hintThreadFactory.getExceptionHandler());
+    }
+}
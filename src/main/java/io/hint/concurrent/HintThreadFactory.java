@@ -0,0 +1,58 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint.concurrent;
+
+import io.hint.HintConfig;
+import io.hint.HintExceptionHandler;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * {@code ThreadFactory} setting a {@link HintExceptionHandler} on each created thread,
+ * so exceptions thrown by their tasks are reported by Hint.
+ */
+public class HintThreadFactory implements ThreadFactory {
+    private final ThreadFactory delegate;
+    private final HintExceptionHandler exceptionHandler;
+
+    /**
+     * @param config settings used to report exceptions
+     */
+    public HintThreadFactory(HintConfig config) {
+        this(config, Executors.defaultThreadFactory());
+    }
+
+    /**
+     * @param config   settings used to report exceptions
+     * @param delegate factory creating the threads
+     */
+    public HintThreadFactory(HintConfig config, ThreadFactory delegate) {
+        this.delegate = delegate;
+        this.exceptionHandler = new HintExceptionHandler(config);
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        Thread thread = delegate.newThread(r);
+        thread.setUncaughtExceptionHandler(exceptionHandler);
+        return thread;
+    }
+
+    HintExceptionHandler getExceptionHandler() {
+        return exceptionHandler;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint.concurrent;
+
+import io.hint.HintConfig;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>{@code ThreadPoolExecutor} reporting failed tasks with Hint.</p>
+ *
+ * <p>Exceptions of tasks run with {@code execute} reach the {@link io.hint.HintExceptionHandler} set on worker
+ * threads. Exceptions of tasks run with {@code submit} or {@code invokeAll} are kept by their {@code Future},
+ * they are reported once the task is done.</p>
+ */
+public class HintThreadPoolExecutor extends ThreadPoolExecutor {
+    private final HintThreadFactory hintThreadFactory;
+
+    public HintThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                  BlockingQueue<Runnable> workQueue, HintConfig config) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue,
+                Executors.defaultThreadFactory(), config);
+    }
+
+    /**
+     * @param threadFactory factory creating worker threads, the Hint exception handler is set on each of them
+     * @param config        settings used to report exceptions
+     */
+    public HintThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                  BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory,
+                                  HintConfig config) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue,
+                new HintThreadFactory(config, threadFactory));
+    }
+
+    private HintThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                   BlockingQueue<Runnable> workQueue, HintThreadFactory hintThreadFactory) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, hintThreadFactory);
+        this.hintThreadFactory = hintThreadFactory;
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        TaskFailures.report(r, t, hintThreadFactory.getExceptionHandler());
+    }
+}
@@ -0,0 +1,51 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint.concurrent;
+
+import io.hint.HintConfig;
+import io.hint.HintExceptionHandler;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Reports failures of {@code CompletableFuture} pipelines with Hint, without waiting for their result
+ */
+public final class Hints {
+
+    private Hints() {
+    }
+
+    /**
+     * <p>Reports the failure of given stage once it completes, from the thread completing it.</p>
+     *
+     * <p>Example :</p>
+     * <pre>
+     *     Hints.whenFailed(CompletableFuture.runAsync(spaceship::goToMars), config);
+     * </pre>
+     *
+     * @param stage  stage to be watched
+     * @param config settings used to report the failure
+     * @param <T>    type of the stage result
+     * @return stage completed as given stage, once its failure is reported
+     */
+    public static <T> CompletionStage<T> whenFailed(CompletionStage<T> stage, HintConfig config) {
+        return stage.whenComplete((result, failure) -> {
+            if (failure != null) {
+                new HintExceptionHandler(config).uncaughtException(Thread.currentThread(), failure);
+            }
+        });
+    }
+}
@@ -0,0 +1,60 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint.concurrent;
+
+import io.hint.HintExceptionHandler;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Reports failures of tasks whose exception is kept by their {@code Future} instead of reaching the thread
+ */
+final class TaskFailures {
+
+    private TaskFailures() {
+    }
+
+    /**
+     * To be called from {@code afterExecute}, nothing is allocated if the task succeeded
+     *
+     * @param task    executed task
+     * @param t       exception which terminated the task, {@code null} if it completed normally
+     *                or its exception was kept by its {@code Future}
+     * @param handler handler reporting the failure
+     */
+    static void report(Runnable task, Throwable t, HintExceptionHandler handler) {
+        // a non null exception is thrown to the worker thread, and reported by its own handler
+        if (t != null || !(task instanceof Future<?>)) {
+            return;
+        }
+        Future<?> future = (Future<?>) task;
+        // periodic tasks are done only once cancelled or failed
+        if (!future.isDone() || future.isCancelled()) {
+            return;
+        }
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            handler.uncaughtException(Thread.currentThread(), e.getCause());
+        } catch (CancellationException ignored) {
+            // cancelled after completion check, nothing to report
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
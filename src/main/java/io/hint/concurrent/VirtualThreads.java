@@ -0,0 +1,58 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint.concurrent;
+
+import io.hint.HintConfig;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>Support of virtual threads, available when running on Java 21 or later.</p>
+ *
+ * <p>This class is replaced by its Java 21 version in the multi-release JAR,
+ * this version is used by older Java versions which have no virtual threads.</p>
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return {@code true} if virtual threads are supported by the running JVM
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * @param thread thread to be checked
+     * @return {@code true} if given thread is a virtual thread
+     */
+    public static boolean isVirtual(Thread thread) {
+        return false;
+    }
+
+    /**
+     * Creates a factory of virtual threads, reporting their uncaught exceptions with Hint
+     *
+     * @param config settings used to report exceptions
+     * @return factory built with {@code Thread.ofVirtual()}
+     * @throws UnsupportedOperationException if virtual threads are not supported by the running JVM
+     */
+    public static ThreadFactory newThreadFactory(HintConfig config) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+    }
+}
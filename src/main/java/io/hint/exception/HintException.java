@@ -19,6 +19,9 @@ package io.hint.exception;
  * <p>Checked flavor of Hint throwable, may be used by final program for custom logic.</p>
  *
  * <p>Holds references for hint and custom error messages.</p>
+ *
+ * <p>When created from a cause, only the cause stacktrace is relevant: the wrapper neither captures
+ * its own stacktrace nor records suppressed exceptions, which keeps wrapping cheap.</p>
  */
 public class HintException extends Exception implements HintThrowable {
     private final HintMsgsBox msgsBox;
@@ -54,7 +57,7 @@ public class HintException extends Exception implements HintThrowable {
     }
 
     private HintException(Throwable cause, String hintsMsg, String customErrorMsg) {
-        super(cause);
+        super(cause == null ? null : cause.toString(), cause, cause == null, cause == null);
         msgsBox = new HintMsgsBox(hintsMsg, customErrorMsg);
     }
 
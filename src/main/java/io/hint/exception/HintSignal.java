@@ -0,0 +1,73 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint.exception;
+
+/**
+ * <p>Immutable flavor of Hint throwable for well-known error conditions, gets handled by
+ * {@code HintExceptionHandler} like {@link HintRuntimeException} if thrown.</p>
+ *
+ * <p>A signal has no cause, no stacktrace and no suppressed exceptions, so it can be created once
+ * and thrown repeatedly without any allocation:</p>
+ * <pre>
+ *     private static final HintSignal CONFIG_MISSING =
+ *             HintSignal.of("Create the file config.yml in the working directory", "Configuration file is missing");
+ *     ...
+ *     throw CONFIG_MISSING;
+ * </pre>
+ */
+public final class HintSignal extends RuntimeException implements HintThrowable {
+    private final HintMsgsBox msgsBox;
+
+    /**
+     * Creates {@code HintSignal} object from a hint message
+     * @param hintsMsg hints message string
+     * @return instance of HintSignal with empty custom error message
+     */
+    public static HintSignal of(String hintsMsg) {
+        return new HintSignal(hintsMsg, "");
+    }
+
+    /**
+     * Creates {@code HintSignal} object from a hint message and a custom error message
+     * @param hintsMsg hints message string
+     * @param customErrorMsg custom error message string
+     * @return instance of HintSignal
+     */
+    public static HintSignal of(String hintsMsg, String customErrorMsg) {
+        return new HintSignal(hintsMsg, customErrorMsg);
+    }
+
+    private HintSignal(String hintsMsg, String customErrorMsg) {
+        super(customErrorMsg, null, false, false);
+        msgsBox = new HintMsgsBox(hintsMsg, customErrorMsg);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getHintsMsg() {
+        return msgsBox.getHintsMsg();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getCustomErrorMsg() {
+        return msgsBox.getCustomErrorMsg();
+    }
+}
@@ -0,0 +1,215 @@
+package io.hint.io;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * <p>Reads records written by {@link BinaryRecordWriter}, field by field in the order they were written.</p>
+ *
+ * <p>This class is not thread safe.</p>
+ */
+public final class BinaryRecordReader implements Closeable {
+    private final InputStream in;
+    private final Inflater inflater = new Inflater();
+    private final List<String> strings = new ArrayList<>();
+    private byte[] block = new byte[0];
+    private byte[] deflated = new byte[0];
+    private int position;
+    private int limit;
+
+    /**
+     * @param in stream starting with the header written by {@link BinaryRecordWriter}
+     * @throws IOException if the stream is not a stream of binary records
+     */
+    public BinaryRecordReader(InputStream in) throws IOException {
+        this.in = new BufferedInputStream(in);
+        byte[] magic = new byte[BinaryRecordWriter.MAGIC.length];
+        for (int i = 0; i < magic.length; i++) {
+            int b = this.in.read();
+            if (b != (BinaryRecordWriter.MAGIC[i] & 0xFF)) {
+                throw new IOException("Not a stream of binary reports");
+            }
+        }
+        int version = this.in.read();
+        if (version != BinaryRecordWriter.VERSION) {
+            throw new IOException("Unsupported version of binary reports: " + version);
+        }
+    }
+
+    /**
+     * @return type of next record, {@code -1} at the end of the stream
+     */
+    public int nextRecord() throws IOException {
+        if (position == limit && !readBlock()) {
+            return -1;
+        }
+        return block[position++] & 0xFF;
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    public long readLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public int readSignedInt() throws IOException {
+        int value = (int) readLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public String readString() throws IOException {
+        long ref = readLong();
+        if (ref == 0) {
+            return null;
+        }
+        if (ref == 1) {
+            int length = readLength();
+            if (length > limit - position) {
+                throw new EOFException("Truncated string");
+            }
+            String value = new String(block, position, length, StandardCharsets.UTF_8);
+            position += length;
+            if (strings.size() < BinaryRecordWriter.MAX_STRINGS) {
+                strings.add(value);
+            }
+            return value;
+        }
+        if (ref - 2 >= strings.size()) {
+            throw new IOException("Unknown string reference: " + (ref - 2));
+        }
+        return strings.get((int) (ref - 2));
+    }
+
+    public ThrowableSnapshot readSnapshot() throws IOException {
+        String description = readString();
+        if (readBoolean()) {
+            return new ThrowableSnapshot(description, new StackTraceElement[0], new ThrowableSnapshot[0], null, true);
+        }
+        StackTraceElement[] frames = new StackTraceElement[readLength()];
+        for (int i = 0; i < frames.length; i++) {
+            String className = readString();
+            String methodName = readString();
+            String fileName = readString();
+            frames[i] = new StackTraceElement(className, methodName, fileName, readSignedInt());
+        }
+        ThrowableSnapshot[] suppressed = new ThrowableSnapshot[readLength()];
+        for (int i = 0; i < suppressed.length; i++) {
+            suppressed[i] = readSnapshot();
+        }
+        ThrowableSnapshot cause = readBoolean() ? readSnapshot() : null;
+        return new ThrowableSnapshot(description, frames, suppressed, cause, false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    private int readByte() throws IOException {
+        if (position == limit) {
+            throw new EOFException("Truncated record");
+        }
+        return block[position++] & 0xFF;
+    }
+
+    private int readLength() throws IOException {
+        long length = readLong();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Malformed length: " + length);
+        }
+        return (int) length;
+    }
+
+    /**
+     * @return {@code false} at the end of the stream
+     */
+    private boolean readBlock() throws IOException {
+        int flags = in.read();
+        if (flags < 0) {
+            return false;
+        }
+        int length = readStreamLength();
+        if ((flags & BinaryRecordWriter.FLAG_DEFLATED) == 0) {
+            block = readFully(block, length);
+        } else {
+            int inflatedLength = readStreamLength();
+            deflated = readFully(deflated, length);
+            if (block.length < inflatedLength) {
+                block = new byte[inflatedLength];
+            }
+            inflater.reset();
+            inflater.setInput(deflated, 0, length);
+            try {
+                int n = 0;
+                while (n < inflatedLength && !inflater.finished()) {
+                    int read = inflater.inflate(block, n, inflatedLength - n);
+                    if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    n += read;
+                }
+                if (n != inflatedLength) {
+                    throw new IOException("Corrupted block");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupted block", e);
+            }
+            length = inflatedLength;
+        }
+        position = 0;
+        limit = length;
+        return true;
+    }
+
+    private int readStreamLength() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated block");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value > Integer.MAX_VALUE) {
+                    break;
+                }
+                return (int) value;
+            }
+        }
+        throw new IOException("Malformed block length");
+    }
+
+    private byte[] readFully(byte[] buffer, int length) throws IOException {
+        if (buffer.length < length) {
+            buffer = new byte[length];
+        }
+        int n = 0;
+        while (n < length) {
+            int read = in.read(buffer, n, length - n);
+            if (read < 0) {
+                throw new EOFException("Truncated block");
+            }
+            n += read;
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,239 @@
+package io.hint.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * <p>Writes records in a compact binary format, read back by {@link BinaryRecordReader}.</p>
+ *
+ * <p>A stream starts with magic bytes {@code HNTB} and a version byte, followed by blocks. Each block starts with
+ * a flags byte ({@code 1} if deflated), the varint length of its payload and, if deflated, the varint length of
+ * the inflated payload. A payload is a sequence of records, each starting with a type byte.</p>
+ *
+ * <p>Fields are encoded as:</p>
+ * <ul>
+ *     <li>numbers: unsigned LEB128 varints, zigzag encoded if signed</li>
+ *     <li>strings: varint {@code 0} for {@code null}, {@code 1} followed by the varint length and UTF-8 bytes
+ *     of a new string, or {@code n + 2} for the {@code n}th new string of the stream</li>
+ *     <li>snapshots: description, circular reference flag, then frames (class, method, file, line),
+ *     suppressed snapshots and optional cause</li>
+ * </ul>
+ *
+ * <p>Records are buffered until the block size is reached, or until this writer is flushed.
+ * This class is not thread safe.</p>
+ */
+public final class BinaryRecordWriter implements Closeable, Flushable {
+    static final byte[] MAGIC = {'H', 'N', 'T', 'B'};
+    static final int VERSION = 1;
+    static final int FLAG_DEFLATED = 1;
+    // strings shared by reference at most, others are written in full each time
+    static final int MAX_STRINGS = 1 << 16;
+
+    private final OutputStream out;
+    private final int blockSize;
+    // null if blocks are not compressed
+    private final Deflater deflater;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private byte[] block;
+    private int blockLength;
+    private byte[] deflated = new byte[0];
+    private final byte[] header = new byte[1 + 2 * 5];
+    private boolean headerWritten;
+
+    /**
+     * @param out       target stream
+     * @param blockSize bytes of records buffered before a block is written
+     * @param compress  {@code true} to deflate each block
+     */
+    public BinaryRecordWriter(OutputStream out, int blockSize, boolean compress) {
+        this.out = out;
+        this.blockSize = Math.max(1, blockSize);
+        this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        this.block = new byte[Math.min(this.blockSize, 64 * 1024) + 64];
+    }
+
+    /**
+     * Starts a record
+     *
+     * @param type record type, from {@code 0} to {@code 255}
+     */
+    public void startRecord(int type) {
+        ensureCapacity(1);
+        block[blockLength++] = (byte) type;
+    }
+
+    /**
+     * Ends current record, and writes current block if it is full
+     */
+    public void endRecord() throws IOException {
+        if (blockLength >= blockSize) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * @return {@code true} if records were ended since the last block was written
+     */
+    public boolean hasBufferedRecords() {
+        return blockLength > 0;
+    }
+
+    public void writeBoolean(boolean value) {
+        ensureCapacity(1);
+        block[blockLength++] = (byte) (value ? 1 : 0);
+    }
+
+    /**
+     * @param value unsigned value, written as a varint
+     */
+    public void writeLong(long value) {
+        ensureCapacity(10);
+        blockLength = putVarint(block, blockLength, value);
+    }
+
+    /**
+     * @param value signed value, zigzag encoded as a varint
+     */
+    public void writeSignedInt(int value) {
+        writeLong(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param value string, written as a reference if it was already written in this stream
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeLong(0);
+            return;
+        }
+        Integer index = strings.get(value);
+        if (index != null) {
+            writeLong(index + 2L);
+            return;
+        }
+        if (strings.size() < MAX_STRINGS) {
+            strings.put(value, strings.size());
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeLong(1);
+        writeLong(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, block, blockLength, bytes.length);
+        blockLength += bytes.length;
+    }
+
+    /**
+     * @param t snapshot, with its suppressed exceptions and causes
+     */
+    public void writeSnapshot(ThrowableSnapshot t) {
+        writeString(t.getDescription());
+        writeBoolean(t.isCircularReference());
+        if (t.isCircularReference()) {
+            return;
+        }
+        StackTraceElement[] frames = t.getFrames();
+        writeLong(frames.length);
+        for (StackTraceElement frame : frames) {
+            writeString(frame.getClassName());
+            writeString(frame.getMethodName());
+            writeString(frame.getFileName());
+            writeSignedInt(frame.getLineNumber());
+        }
+        ThrowableSnapshot[] suppressed = t.getSuppressed();
+        writeLong(suppressed.length);
+        for (ThrowableSnapshot s : suppressed) {
+            writeSnapshot(s);
+        }
+        writeBoolean(t.getCause() != null);
+        if (t.getCause() != null) {
+            writeSnapshot(t.getCause());
+        }
+    }
+
+    /**
+     * Writes current block, even if it is not full, and flushes target stream
+     */
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+            out.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (!headerWritten) {
+            out.write(MAGIC);
+            out.write(VERSION);
+            headerWritten = true;
+        }
+        if (blockLength == 0) {
+            return;
+        }
+        int deflatedLength = deflater == null ? -1 : deflate();
+        int headerLength;
+        // a block is only deflated if it gets smaller
+        if (deflatedLength >= 0 && deflatedLength < blockLength) {
+            header[0] = FLAG_DEFLATED;
+            headerLength = putVarint(header, putVarint(header, 1, deflatedLength), blockLength);
+            out.write(header, 0, headerLength);
+            out.write(deflated, 0, deflatedLength);
+        } else {
+            header[0] = 0;
+            headerLength = putVarint(header, 1, blockLength);
+            out.write(header, 0, headerLength);
+            out.write(block, 0, blockLength);
+        }
+        blockLength = 0;
+    }
+
+    private int deflate() {
+        deflater.reset();
+        deflater.setInput(block, 0, blockLength);
+        deflater.finish();
+        if (deflated.length < blockLength) {
+            deflated = new byte[blockLength];
+        }
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == deflated.length) {
+                // incompressible block, written as is
+                return -1;
+            }
+            length += deflater.deflate(deflated, length, deflated.length - length);
+        }
+        return length;
+    }
+
+    private void ensureCapacity(int length) {
+        if (blockLength + length > block.length) {
+            block = Arrays.copyOf(block, Math.max(block.length * 2, blockLength + length));
+        }
+    }
+
+    private static int putVarint(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+}
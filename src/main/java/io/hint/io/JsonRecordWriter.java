@@ -0,0 +1,86 @@
+package io.hint.io;
+
+/**
+ * Writes a record as a JSON object, strings are escaped as specified by RFC 8259
+ */
+final class JsonRecordWriter extends RecordWriter {
+    private boolean empty = true;
+
+    JsonRecordWriter(StringBuilder sb) {
+        super(sb);
+    }
+
+    @Override
+    public void end() {
+        sb.append(empty ? "{}" : "}");
+    }
+
+    @Override
+    void key(String key) {
+        sb.append(empty ? '{' : ',');
+        empty = false;
+        sb.append('"').append(key).append("\":");
+    }
+
+    @Override
+    void string(CharSequence value) {
+        sb.append('"');
+        // characters which need no escaping are copied by runs
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape;
+            switch (c) {
+                case '"':
+                    escape = "\\\"";
+                    break;
+                case '\\':
+                    escape = "\\\\";
+                    break;
+                case '\n':
+                    escape = "\\n";
+                    break;
+                case '\r':
+                    escape = "\\r";
+                    break;
+                case '\t':
+                    escape = "\\t";
+                    break;
+                default:
+                    // line separators are valid JSON but break JavaScript parsers,
+                    // lone surrogates cannot be encoded in UTF-8
+                    if (!(c < 0x20 || c == '\u2028' || c == '\u2029' || isLoneSurrogate(value, i))) {
+                        continue;
+                    }
+                    escape = null;
+            }
+            sb.append(value, start, i);
+            if (escape == null) {
+                appendUnicodeEscape(c);
+            } else {
+                sb.append(escape);
+            }
+            start = i + 1;
+        }
+        sb.append(value, start, value.length());
+        sb.append('"');
+    }
+
+    @Override
+    void startList() {
+        sb.append('[');
+    }
+
+    @Override
+    void listElement(int index, CharSequence value) {
+        if (index > 0) {
+            sb.append(',');
+        }
+        string(value);
+    }
+
+    @Override
+    void endList() {
+        sb.append(']');
+    }
+}
@@ -0,0 +1,110 @@
+package io.hint.io;
+
+/**
+ * <p>Writes a record as a logfmt line: {@code key=value} pairs separated by spaces.</p>
+ *
+ * <p>Values containing spaces, quotes, {@code =} or control characters are quoted and escaped
+ * as Go string literals. Lists are written as a single quoted value, one element per line.</p>
+ */
+final class LogfmtRecordWriter extends RecordWriter {
+    private boolean empty = true;
+
+    LogfmtRecordWriter(StringBuilder sb) {
+        super(sb);
+    }
+
+    @Override
+    public void end() {
+        // nothing closes a logfmt line
+    }
+
+    @Override
+    void key(String key) {
+        if (!empty) {
+            sb.append(' ');
+        }
+        empty = false;
+        sb.append(key).append('=');
+    }
+
+    @Override
+    void string(CharSequence value) {
+        if (!needsQuotes(value)) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"');
+        appendEscaped(value);
+        sb.append('"');
+    }
+
+    @Override
+    void startList() {
+        sb.append('"');
+    }
+
+    @Override
+    void listElement(int index, CharSequence value) {
+        if (index > 0) {
+            sb.append("\\n");
+        }
+        appendEscaped(value);
+    }
+
+    @Override
+    void endList() {
+        sb.append('"');
+    }
+
+    private static boolean needsQuotes(CharSequence value) {
+        if (value.length() == 0) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c <= ' ' || c == '=' || c == '"' || c == '\\' || c == 0x7F || Character.isSurrogate(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void appendEscaped(CharSequence value) {
+        // characters which need no escaping are copied by runs
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape;
+            switch (c) {
+                case '"':
+                    escape = "\\\"";
+                    break;
+                case '\\':
+                    escape = "\\\\";
+                    break;
+                case '\n':
+                    escape = "\\n";
+                    break;
+                case '\r':
+                    escape = "\\r";
+                    break;
+                case '\t':
+                    escape = "\\t";
+                    break;
+                default:
+                    if (!(c < 0x20 || c == 0x7F || isLoneSurrogate(value, i))) {
+                        continue;
+                    }
+                    escape = null;
+            }
+            sb.append(value, start, i);
+            if (escape == null) {
+                appendUnicodeEscape(c);
+            } else {
+                sb.append(escape);
+            }
+            start = i + 1;
+        }
+        sb.append(value, start, value.length());
+    }
+}
@@ -0,0 +1,108 @@
+package io.hint.io;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * <p>Writer inserting a prefix after each line break, characters are copied to the target as they are written,
+ * without building intermediate strings.</p>
+ *
+ * <p>{@code \n}, {@code \r\n} and {@code \r} are all considered as line breaks and kept as is in the output.
+ * A trailing {@code \r} is only known to be a line break once the next character is written,
+ * or when this writer gets closed.</p>
+ */
+public class PrefixingWriter extends Writer {
+    private final Appendable out;
+    private final String prefix;
+    private boolean pendingCarriageReturn;
+
+    public PrefixingWriter(Appendable out, String prefix) {
+        this.out = out;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        append((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        append(CharBuffer.wrap(cbuf), off, off + len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        append(str, off, off + len);
+    }
+
+    @Override
+    public PrefixingWriter append(CharSequence csq) throws IOException {
+        return append(csq, 0, csq == null ? 4 : csq.length());
+    }
+
+    @Override
+    public PrefixingWriter append(CharSequence csq, int start, int end) throws IOException {
+        if (csq == null) {
+            csq = "null";
+        }
+        // characters between two line breaks are copied at once
+        int runStart = start;
+        for (int i = start; i < end; i++) {
+            char c = csq.charAt(i);
+            if (pendingCarriageReturn) {
+                pendingCarriageReturn = false;
+                if (c != '\n') {
+                    // previous '\r' was a line break on its own
+                    out.append(csq, runStart, i).append(prefix);
+                    runStart = i;
+                }
+            }
+            if (c == '\n') {
+                out.append(csq, runStart, i + 1).append(prefix);
+                runStart = i + 1;
+            } else if (c == '\r') {
+                pendingCarriageReturn = true;
+            }
+        }
+        out.append(csq, runStart, end);
+        return this;
+    }
+
+    @Override
+    public PrefixingWriter append(char c) throws IOException {
+        if (pendingCarriageReturn) {
+            pendingCarriageReturn = false;
+            if (c != '\n') {
+                out.append(prefix);
+            }
+        }
+        out.append(c);
+        if (c == '\n') {
+            out.append(prefix);
+        } else if (c == '\r') {
+            pendingCarriageReturn = true;
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out instanceof Flushable) {
+            ((Flushable) out).flush();
+        }
+    }
+
+    /**
+     * Completes a trailing line break, the target is not closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (pendingCarriageReturn) {
+            pendingCarriageReturn = false;
+            out.append(prefix);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.hint.io;
+
+/**
+ * <p>Writes a single line record of fields into a buffer, for machine consumers of reports.</p>
+ *
+ * <p>Values are escaped as they are copied to the buffer, without building intermediate strings.
+ * Keys are written as is: they should only contain letters, digits and underscores.</p>
+ */
+public abstract class RecordWriter {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    final StringBuilder sb;
+    // holds each frame while it gets formatted
+    private final StringBuilder frame = new StringBuilder();
+
+    RecordWriter(StringBuilder sb) {
+        this.sb = sb;
+    }
+
+    /**
+     * @param sb target buffer
+     * @return writer of a JSON object, without line break
+     */
+    public static RecordWriter ndjson(StringBuilder sb) {
+        return new JsonRecordWriter(sb);
+    }
+
+    /**
+     * @param sb target buffer
+     * @return writer of a logfmt line, without line break
+     */
+    public static RecordWriter logfmt(StringBuilder sb) {
+        return new LogfmtRecordWriter(sb);
+    }
+
+    /**
+     * @param key   field name
+     * @param value field value, the field is skipped if {@code null}
+     * @return this writer
+     */
+    public RecordWriter field(String key, CharSequence value) {
+        if (value != null) {
+            key(key);
+            string(value);
+        }
+        return this;
+    }
+
+    /**
+     * @param key   field name
+     * @param value field value
+     * @return this writer
+     */
+    public RecordWriter field(String key, long value) {
+        key(key);
+        sb.append(value);
+        return this;
+    }
+
+    /**
+     * Writes frames of given snapshot as a list of strings, in {@link StackTraceElement#toString()} format
+     *
+     * @param key       field name
+     * @param t         snapshot of a throwable
+     * @param maxFrames maximum number of frames written, {@code 0} for no limit
+     * @return number of frames omitted
+     */
+    public int frames(String key, ThrowableSnapshot t, int maxFrames) {
+        StackTraceElement[] frames = t.getFrames();
+        int length = maxFrames <= 0 ? frames.length : Math.min(maxFrames, frames.length);
+        key(key);
+        startList();
+        for (int i = 0; i < length; i++) {
+            frame.setLength(0);
+            StackFrameWriter.appendFrame(frame, frames[i]);
+            listElement(i, frame);
+        }
+        endList();
+        return frames.length - length;
+    }
+
+    /**
+     * Writes descriptions of the causes of given snapshot as a list of strings, the direct cause first
+     *
+     * @param key field name
+     * @param t   snapshot of a throwable
+     * @return this writer
+     */
+    public RecordWriter causes(String key, ThrowableSnapshot t) {
+        key(key);
+        startList();
+        int i = 0;
+        for (ThrowableSnapshot cause = t.getCause(); cause != null; cause = cause.getCause()) {
+            listElement(i++, cause.getDescription());
+        }
+        endList();
+        return this;
+    }
+
+    /**
+     * Ends the record, without line break
+     */
+    public abstract void end();
+
+    abstract void key(String key);
+
+    abstract void string(CharSequence value);
+
+    abstract void startList();
+
+    abstract void listElement(int index, CharSequence value);
+
+    abstract void endList();
+
+    /**
+     * Appends unicode escape sequence of given character, as 4 hex digits
+     */
+    final void appendUnicodeEscape(char c) {
+        sb.append("\\u")
+                .append(HEX_DIGITS[(c >> 12) & 0xF])
+                .append(HEX_DIGITS[(c >> 8) & 0xF])
+                .append(HEX_DIGITS[(c >> 4) & 0xF])
+                .append(HEX_DIGITS[c & 0xF]);
+    }
+
+    /**
+     * @return {@code true} if the character at given index is a surrogate without its pair
+     */
+    static boolean isLoneSurrogate(CharSequence s, int i) {
+        char c = s.charAt(i);
+        if (Character.isHighSurrogate(c)) {
+            return i + 1 == s.length() || !Character.isLowSurrogate(s.charAt(i + 1));
+        }
+        if (Character.isLowSurrogate(c)) {
+            return i == 0 || !Character.isHighSurrogate(s.charAt(i - 1));
+        }
+        return false;
+    }
+}
@@ -0,0 +1,160 @@
+package io.hint.io;
+
+/**
+ * <p>Writes stacktrace of a throwable into a buffer, each line starting with a prefix.</p>
+ *
+ * <p>Output follows {@link Throwable#printStackTrace()} layout (causes, suppressed exceptions and frames in common
+ * with enclosing trace), with two additions:</p>
+ * <ul>
+ *     <li>consecutive frames from collapsed packages are replaced by a single line {@code ... N framework frames}</li>
+ *     <li>at most {@code maxFrames} frame lines are written for each throwable, others are replaced by
+ *     a single line {@code ... N frames omitted}</li>
+ * </ul>
+ */
+public class StackFrameWriter {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String CAUSE_CAPTION = "Caused by: ";
+    private static final String SUPPRESSED_CAPTION = "Suppressed: ";
+
+    private final String linePrefix;
+    private final int maxFrames;
+    private final String[] collapsedPackages;
+
+    /**
+     * @param linePrefix        prefix to write at the start of each line
+     * @param maxFrames         maximum number of frame lines written for each throwable, {@code 0} for no limit
+     * @param collapsedPackages packages (e.g {@code sun.reflect}) whose frames are collapsed, subpackages included
+     */
+    public StackFrameWriter(String linePrefix, int maxFrames, String... collapsedPackages) {
+        this.linePrefix = linePrefix;
+        this.maxFrames = maxFrames <= 0 ? Integer.MAX_VALUE : maxFrames;
+        this.collapsedPackages = new String[collapsedPackages.length];
+        for (int i = 0; i < collapsedPackages.length; i++) {
+            String p = collapsedPackages[i];
+            this.collapsedPackages[i] = p.endsWith(".") ? p : p + ".";
+        }
+    }
+
+    /**
+     * Appends stacktrace of given throwable, each line ends with a line separator
+     *
+     * @param t  throwable to be written
+     * @param sb target buffer
+     */
+    public void write(Throwable t, StringBuilder sb) {
+        write(ThrowableSnapshot.of(t), sb);
+    }
+
+    /**
+     * Appends stacktrace of given snapshot, each line ends with a line separator
+     *
+     * @param t  snapshot of the throwable to be written
+     * @param sb target buffer
+     */
+    public void write(ThrowableSnapshot t, StringBuilder sb) {
+        startLine(sb).append(t.getDescription());
+        endLine(sb);
+        StackTraceElement[] trace = t.getFrames();
+        writeFrames(sb, trace, trace.length, "");
+        writeEnclosed(t, trace, sb, "");
+    }
+
+    private void writeEnclosed(ThrowableSnapshot t, StackTraceElement[] trace, StringBuilder sb, String indent) {
+        for (ThrowableSnapshot se : t.getSuppressed()) {
+            writeEnclosedTrace(se, trace, sb, SUPPRESSED_CAPTION, indent + "\t");
+        }
+        ThrowableSnapshot cause = t.getCause();
+        if (cause != null) {
+            writeEnclosedTrace(cause, trace, sb, CAUSE_CAPTION, indent);
+        }
+    }
+
+    private void writeEnclosedTrace(ThrowableSnapshot t, StackTraceElement[] enclosingTrace, StringBuilder sb,
+                                    String caption, String indent) {
+        if (t.isCircularReference()) {
+            startLine(sb).append(indent).append("[CIRCULAR REFERENCE: ").append(t.getDescription()).append(']');
+            endLine(sb);
+            return;
+        }
+        StackTraceElement[] trace = t.getFrames();
+        // compute number of frames in common between this and enclosing trace
+        int m = trace.length - 1;
+        int n = enclosingTrace.length - 1;
+        while (m >= 0 && n >= 0 && trace[m].equals(enclosingTrace[n])) {
+            m--;
+            n--;
+        }
+        int framesInCommon = trace.length - 1 - m;
+
+        startLine(sb).append(indent).append(caption).append(t.getDescription());
+        endLine(sb);
+        writeFrames(sb, trace, m + 1, indent);
+        if (framesInCommon != 0) {
+            startLine(sb).append(indent).append("\t... ").append(framesInCommon).append(" more");
+            endLine(sb);
+        }
+        writeEnclosed(t, trace, sb, indent);
+    }
+
+    private void writeFrames(StringBuilder sb, StackTraceElement[] trace, int length, String indent) {
+        int lines = 0;
+        int i = 0;
+        while (i < length) {
+            if (lines == maxFrames) {
+                startLine(sb).append(indent).append("\t... ").append(length - i).append(" frames omitted");
+                endLine(sb);
+                return;
+            }
+            int collapsed = 0;
+            while (i + collapsed < length && isCollapsed(trace[i + collapsed])) {
+                collapsed++;
+            }
+            startLine(sb).append(indent);
+            if (collapsed > 1) {
+                sb.append("\t... ").append(collapsed).append(" framework frames");
+                i += collapsed;
+            } else {
+                appendFrame(sb.append("\tat "), trace[i]);
+                i++;
+            }
+            endLine(sb);
+            lines++;
+        }
+    }
+
+    private boolean isCollapsed(StackTraceElement frame) {
+        String className = frame.getClassName();
+        for (String p : collapsedPackages) {
+            if (className.startsWith(p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Same output as {@link StackTraceElement#toString()} without module information, built in place
+     */
+    static void appendFrame(StringBuilder sb, StackTraceElement frame) {
+        sb.append(frame.getClassName()).append('.').append(frame.getMethodName());
+        if (frame.isNativeMethod()) {
+            sb.append("(Native Method)");
+        } else if (frame.getFileName() == null) {
+            sb.append("(Unknown Source)");
+        } else {
+            sb.append('(').append(frame.getFileName());
+            if (frame.getLineNumber() >= 0) {
+                sb.append(':').append(frame.getLineNumber());
+            }
+            sb.append(')');
+        }
+    }
+
+    private StringBuilder startLine(StringBuilder sb) {
+        return sb.append(linePrefix);
+    }
+
+    private static void endLine(StringBuilder sb) {
+        sb.append(LINE_SEPARATOR);
+    }
+}
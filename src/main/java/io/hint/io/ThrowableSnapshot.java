@@ -0,0 +1,82 @@
+package io.hint.io;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * <p>Immutable copy of what is printed from a throwable: its description, frames, suppressed exceptions and causes.</p>
+ *
+ * <p>A snapshot can be written later by another thread without keeping the live throwable,
+ * whose message or causes could still change.</p>
+ */
+public final class ThrowableSnapshot {
+    private static final ThrowableSnapshot[] NO_SUPPRESSED = new ThrowableSnapshot[0];
+
+    private final String description;
+    private final StackTraceElement[] frames;
+    private final ThrowableSnapshot[] suppressed;
+    private final ThrowableSnapshot cause;
+    // throwable already met in the same trace, only its description is kept
+    private final boolean circularReference;
+
+    ThrowableSnapshot(String description, StackTraceElement[] frames, ThrowableSnapshot[] suppressed,
+                      ThrowableSnapshot cause, boolean circularReference) {
+        this.description = description;
+        this.frames = frames;
+        this.suppressed = suppressed;
+        this.cause = cause;
+        this.circularReference = circularReference;
+    }
+
+    /**
+     * @param t throwable to be copied, with its suppressed exceptions and causes
+     * @return snapshot of given throwable
+     */
+    public static ThrowableSnapshot of(Throwable t) {
+        Set<Throwable> dejaVu = Collections.newSetFromMap(new IdentityHashMap<>());
+        return of(t, dejaVu);
+    }
+
+    private static ThrowableSnapshot of(Throwable t, Set<Throwable> dejaVu) {
+        // same traversal order as printStackTrace: suppressed exceptions first, then cause
+        if (!dejaVu.add(t)) {
+            return new ThrowableSnapshot(t.toString(), new StackTraceElement[0], NO_SUPPRESSED, null, true);
+        }
+        String description = t.toString();
+        StackTraceElement[] frames = t.getStackTrace();
+        Throwable[] suppressedThrowables = t.getSuppressed();
+        ThrowableSnapshot[] suppressed = suppressedThrowables.length == 0
+                ? NO_SUPPRESSED
+                : new ThrowableSnapshot[suppressedThrowables.length];
+        for (int i = 0; i < suppressed.length; i++) {
+            suppressed[i] = of(suppressedThrowables[i], dejaVu);
+        }
+        Throwable causeThrowable = t.getCause();
+        ThrowableSnapshot cause = causeThrowable == null ? null : of(causeThrowable, dejaVu);
+        return new ThrowableSnapshot(description, frames, suppressed, cause, false);
+    }
+
+    /**
+     * @return same value as {@link Throwable#toString()}
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    StackTraceElement[] getFrames() {
+        return frames;
+    }
+
+    ThrowableSnapshot[] getSuppressed() {
+        return suppressed;
+    }
+
+    ThrowableSnapshot getCause() {
+        return cause;
+    }
+
+    boolean isCircularReference() {
+        return circularReference;
+    }
+}
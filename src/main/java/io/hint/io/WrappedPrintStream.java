@@ -4,12 +4,12 @@ import java.io.PrintStream;
 
 public class WrappedPrintStream extends WrappedPrinter {
     private final PrintStream printStream;
-    private final WrappingPrintStream wrappingPrintStream;
+    // created on demand, each report creates a printer
+    private WrappingPrintStream wrappingPrintStream;
 
     public WrappedPrintStream(String stackPrefix, String separator, PrintStream printStream) {
         super(stackPrefix, separator);
         this.printStream = printStream;
-        wrappingPrintStream = new WrappingPrintStream(printStream, stackPrefix, separator);
     }
 
     @Override
@@ -22,7 +22,25 @@ public class WrappedPrintStream extends WrappedPrinter {
         printStream.println(o);
     }
 
+    @Override
+    public void print(Object o) {
+        printStream.print(o);
+    }
+
+    /**
+     * Writes the whole report with a single write to the underlying stream, as long as it fits
+     * in the encoder buffer of {@code PrintStream} (8 KB)
+     */
+    @Override
+    public void printReport(CharSequence report) {
+        // flushed by the line separators of the report if auto flush is enabled
+        printStream.print(report.toString());
+    }
+
     public WrappingPrintStream getWrappingPrintStream() {
+        if (wrappingPrintStream == null) {
+            wrappingPrintStream = new WrappingPrintStream(printStream, stackPrefix, separator);
+        }
         return wrappingPrintStream;
     }
 
@@ -4,12 +4,12 @@ import java.io.PrintWriter;
 
 public class WrappedPrintWriter extends WrappedPrinter {
     private final PrintWriter printWriter;
-    private final WrappingPrintWriter wrappingPrintWriter;
+    // created on demand, each report creates a printer
+    private WrappingPrintWriter wrappingPrintWriter;
 
     public WrappedPrintWriter(String stackPrefix, String separator, PrintWriter printWriter) {
         super(stackPrefix, separator);
         this.printWriter = printWriter;
-        wrappingPrintWriter = new WrappingPrintWriter(printWriter, stackPrefix, separator);
     }
 
     @Override
@@ -22,7 +22,21 @@ public class WrappedPrintWriter extends WrappedPrinter {
         printWriter.println(o);
     }
 
+    @Override
+    public void print(Object o) {
+        printWriter.print(o);
+    }
+
+    @Override
+    public void printReport(CharSequence report) {
+        printWriter.write(report.toString());
+        printWriter.flush();
+    }
+
     public WrappingPrintWriter getWrappingPrintWriter() {
+        if (wrappingPrintWriter == null) {
+            wrappingPrintWriter = new WrappingPrintWriter(printWriter, stackPrefix, separator);
+        }
         return wrappingPrintWriter;
     }
 
@@ -16,4 +16,15 @@ public abstract class WrappedPrinter {
 
     public abstract void println(Object o);
 
+    public abstract void print(Object o);
+
+    /**
+     * Prints a whole report with a single call, so that it is not interleaved with output of other threads,
+     * then flushes
+     *
+     * @param report text of the report, ending with a line separator
+     */
+    public void printReport(CharSequence report) {
+        print(report);
+    }
 }
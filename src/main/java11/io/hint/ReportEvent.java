@@ -0,0 +1,131 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * <p>Flight Recorder event of a report, with the duration of each phase of {@link HintExceptionHandler}.</p>
+ *
+ * <p>Java 11 version of this class, packaged in the multi-release JAR.</p>
+ *
+ * <p>The event of an asynchronous report is committed by the writer thread once the report is printed,
+ * its duration includes the time spent in the queue.</p>
+ */
+@Name(ReportEvent.NAME)
+@Label("Hint Report")
+@Category("Hint")
+@Description("Exception reported by HintExceptionHandler")
+@StackTrace(false)
+final class ReportEvent extends Event {
+    static final String NAME = "io.hint.Report";
+    // tells whether the event type is enabled, without allocating an event for each report
+    private static final ReportEvent TYPE = new ReportEvent();
+
+    @Label("Exception Class")
+    Class<?> exceptionClass;
+
+    @Label("Hint Source")
+    @Description("wrapper, method_annotation, class_annotation or none")
+    String hintSource;
+
+    @Label("Suppressed")
+    @Description("Repeated occurrence only counted, not printed")
+    boolean suppressed;
+
+    @Label("Stack Trace Printed")
+    boolean stackTracePrinted;
+
+    @Label("Exit Code")
+    int exitCode;
+
+    @Label("Lookup Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long lookupDuration;
+
+    @Label("Prepare Duration")
+    @Description("Deduplication of the report, copy of the stacktrace")
+    @Timespan(Timespan.NANOSECONDS)
+    long prepareDuration;
+
+    @Label("Render Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long renderDuration;
+
+    @Label("Write Duration")
+    @Description("Journaling and writing of the report")
+    @Timespan(Timespan.NANOSECONDS)
+    long writeDuration;
+
+    private ReportEvent() {
+    }
+
+    /**
+     * @return started event, {@code null} if the event is disabled
+     */
+    static ReportEvent start() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Sets fields known by the failing thread, before the report is printed
+     *
+     * @param exceptionClass    class of the reported exception
+     * @param hintSource        where the hint comes from
+     * @param suppressed        {@code true} if the report was suppressed as a repeated occurrence
+     * @param stackTracePrinted {@code true} if the stacktrace was printed
+     * @param exitCode          exit code used when the handler exits the application
+     * @param lookupDuration    nanoseconds spent looking up hint and error messages
+     * @param prepareDuration   nanoseconds spent deduplicating the report, copying the stacktrace
+     */
+    void describe(Class<?> exceptionClass, String hintSource, boolean suppressed, boolean stackTracePrinted,
+                  int exitCode, long lookupDuration, long prepareDuration) {
+        this.exceptionClass = exceptionClass;
+        this.hintSource = hintSource;
+        this.suppressed = suppressed;
+        this.stackTracePrinted = stackTracePrinted;
+        this.exitCode = exitCode;
+        this.lookupDuration = lookupDuration;
+        this.prepareDuration = prepareDuration;
+    }
+
+    /**
+     * Ends and commits the event, once the report is printed
+     *
+     * @param renderDuration nanoseconds spent rendering the report
+     * @param writeDuration  nanoseconds spent journaling and writing the report
+     */
+    void commit(long renderDuration, long writeDuration) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.renderDuration = renderDuration;
+        this.writeDuration = writeDuration;
+        commit();
+    }
+}
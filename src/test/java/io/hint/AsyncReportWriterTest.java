@@ -0,0 +1,188 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.io.WrappedPrintStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.FilterWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncReportWriterTest extends HintTest {
+
+    /**
+     * Keeps the writer thread busy until released, other threads write immediately.
+     * No lock is held while waiting, unlike the default implementation of {@code Writer}
+     */
+    static class BlockingWriter extends Writer {
+        private final StringBuffer content = new StringBuffer();
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void write(char[] buf, int off, int len) {
+            if (Thread.currentThread().getName().equals("hint-report-writer")) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            content.append(buf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            write(str.toCharArray(), off, len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        void release() {
+            release.countDown();
+        }
+
+        @Override
+        public String toString() {
+            return content.toString();
+        }
+    }
+
+    private static void handleException(HintCommand hintCommand, Writer writer, Throwable t) {
+        HintExceptionHandler exceptionHandler = new HintExceptionHandler(hintCommand);
+        // PrintWriter locks its writer: a distinct lock for each report, so that the caller is not blocked
+        // while the writer thread holds the shared writer
+        exceptionHandler.setPrintWriter(new PrintWriter(new FilterWriter(writer) {
+        }));
+        exceptionHandler.uncaughtException(Thread.currentThread(), t);
+    }
+
+    @Test
+    void testSameOutputAsSynchronousReporting() {
+        IllegalStateException ex = new IllegalStateException("Oxygen leak !!!");
+        ex.addSuppressed(new IllegalArgumentException("Fuel leak !!!"));
+        handleException(new HintCommand().showStackTrace(true), ex);
+        String expected = errContent.toString();
+
+        errContent.reset();
+        HintCommand ht = new HintCommand().showStackTrace(true).asyncReporting(8, OverflowPolicy.DISCARD_NEWEST);
+        handleException(ht, ex);
+        assertTrue(ht.getAsyncWriter().drain());
+        assertEquals(expected, errContent.toString());
+    }
+
+    @Test
+    void testDiscardNewest() {
+        HintCommand ht = new HintCommand().asyncReporting(1, OverflowPolicy.DISCARD_NEWEST);
+        BlockingWriter writer = new BlockingWriter();
+        handleException(ht, writer, new IllegalStateException("first"));
+        handleException(ht, writer, new IllegalStateException("second"));
+        handleException(ht, writer, new IllegalStateException("third"));
+        writer.release();
+        assertTrue(ht.getAsyncWriter().drain());
+
+        final String errorPrefix = ht.getErrorPrefix() + ht.getDefaultSeparator();
+        assertEquals("\n" + errorPrefix + ht.getDefaultExceptionMessage() + "first\n"
+                + "\n" + errorPrefix + "2 more reports discarded\n", writer.toString());
+    }
+
+    @Test
+    void testDiscardedCountWithoutNextReport() {
+        HintCommand ht = new HintCommand().asyncReporting(1, OverflowPolicy.DISCARD_NEWEST);
+        // the count of discarded reports cannot follow the only printed report, which fails
+        BlockingWriter failingWriter = new BlockingWriter() {
+            @Override
+            public void write(char[] buf, int off, int len) {
+                super.write(buf, off, len);
+                throw new IllegalStateException("Disk full");
+            }
+        };
+        StringWriter writer = new StringWriter();
+        handleException(ht, failingWriter, new IllegalStateException("first"));
+        handleException(ht, writer, new IllegalStateException("second"));
+        failingWriter.release();
+        assertTrue(ht.getAsyncWriter().drain());
+
+        // printed once the queue is empty, with the output of the discarded report
+        final String errorPrefix = ht.getErrorPrefix() + ht.getDefaultSeparator();
+        assertEquals("\n" + errorPrefix + "1 more reports discarded\n", writer.toString());
+    }
+
+    @Test
+    void testCallerRuns() {
+        HintCommand ht = new HintCommand().asyncReporting(1, OverflowPolicy.CALLER_RUNS);
+        BlockingWriter writer = new BlockingWriter();
+        handleException(ht, writer, new IllegalStateException("first"));
+        handleException(ht, writer, new IllegalStateException("second"));
+        // printed by this thread while the writer thread is still busy
+        final String errorPrefix = ht.getErrorPrefix() + ht.getDefaultSeparator();
+        assertEquals("\n" + errorPrefix + ht.getDefaultExceptionMessage() + "second\n", writer.toString());
+
+        writer.release();
+        assertTrue(ht.getAsyncWriter().drain());
+        assertTrue(writer.toString().endsWith("first\n"));
+    }
+
+    @Test
+    void testSettingsChangedAfterReport() {
+        HintCommand ht = new HintCommand().asyncReporting(8, OverflowPolicy.DISCARD_OLDEST);
+        AsyncReportWriter asyncWriter = ht.getAsyncWriter();
+        ht.asyncReporting(0, null);
+        assertNull(ht.getAsyncWriter());
+        // reports queued to a closed writer are printed synchronously
+        handleException(ht, new IllegalStateException("Oxygen leak !!!"));
+        String expected = errContent.toString();
+        errContent.reset();
+        asyncWriter.submit(new HintReport(ht.getConfig().getRenderer(), new WrappedPrintStream("", "", System.err),
+                null, 0, null, IllegalStateException.class.getName(), "Oxygen leak !!!", true, null, null, null,
+                null, null, null, null));
+        assertEquals(expected, errContent.toString());
+    }
+
+    private static long countWriterThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("hint-report-writer"))
+                .count();
+    }
+
+    @Test
+    void testReconfiguredWritersStop() throws InterruptedException {
+        long baseline = countWriterThreads();
+        HintCommand ht = new HintCommand();
+        for (int i = 0; i < 10; i++) {
+            ht.asyncReporting(8, OverflowPolicy.DISCARD_OLDEST);
+            handleException(ht, new IllegalStateException("Oxygen leak !!!"));
+        }
+        ht.asyncReporting(0, null);
+        // each closed writer stops once its reports are printed
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (countWriterThreads() > baseline && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(baseline, countWriterThreads());
+        assertEquals(10, errContent.toString().split("Oxygen leak !!!", -1).length - 1);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.exception.HintRuntimeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryReportSinkTest extends HintTest {
+    private static final int REPORTS = 100;
+
+    private static List<Throwable> failures() {
+        List<Throwable> failures = new ArrayList<>();
+        for (int i = 0; i < REPORTS; i++) {
+            IllegalStateException e = new IllegalStateException("Oxygen leak ❌ !!! " + i);
+            e.addSuppressed(new IllegalArgumentException("Fuel leak !!!", e));
+            failures.add(i % 2 == 0 ? e : HintRuntimeException.of(new RuntimeException(e), "Check oxygen tanks"));
+        }
+        return failures;
+    }
+
+    private static String decode(byte[] bytes, ReportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryReportDecoder.decode(new ByteArrayInputStream(bytes), format,
+                new PrintStream(out, true, "UTF-8"));
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private byte[] writeAll(HintCommand ht, List<Throwable> failures) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinaryReportSink sink = new BinaryReportSink(out)) {
+            ht.binarySink(sink);
+            for (Throwable t : failures) {
+                handleException(ht, t);
+            }
+            sink.flush();
+        }
+        return out.toByteArray();
+    }
+
+    private String printAll(HintCommand ht, List<Throwable> failures) {
+        errContent.reset();
+        for (Throwable t : failures) {
+            handleException(ht, t);
+        }
+        return errContent.toString();
+    }
+
+    @Test
+    void testDecodeSameAsPrinted() throws IOException {
+        List<Throwable> failures = failures();
+        byte[] bytes = writeAll(new HintCommand().showStackTrace(true), failures);
+        // nothing printed
+        assertEquals("", errContent.toString());
+
+        assertEquals(printAll(new HintCommand().showStackTrace(true), failures), decode(bytes, ReportFormat.TEXT));
+        assertEquals(printAll(new HintCommand().showStackTrace(true).reportFormat(ReportFormat.NDJSON), failures),
+                decode(bytes, ReportFormat.NDJSON));
+    }
+
+    @Test
+    void testCompactOutput() throws IOException {
+        List<Throwable> failures = failures();
+        byte[] deflated = writeAll(new HintCommand().showStackTrace(true), failures);
+        int printed = printAll(new HintCommand().showStackTrace(true), failures).getBytes(StandardCharsets.UTF_8).length;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HintCommand ht = new HintCommand().showStackTrace(true);
+        try (BinaryReportSink sink = new BinaryReportSink(out, 1024, false)) {
+            ht.binarySink(sink);
+            for (Throwable t : failures) {
+                handleException(ht, t);
+            }
+        }
+        // repeated strings are written once
+        assertTrue(out.size() * 4 < printed, out.size() + " bytes written, " + printed + " printed");
+        assertTrue(deflated.length < out.size(), deflated.length + " bytes deflated, " + out.size() + " written");
+        assertEquals(decode(deflated, ReportFormat.TEXT), decode(out.toByteArray(), ReportFormat.TEXT));
+    }
+
+    @Test
+    void testOccurrencesAndDiscarded() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinaryReportSink sink = new BinaryReportSink(out)) {
+            assertTrue(sink.writeOccurrences(3, "java.lang.IllegalStateException: Oxygen leak !!!", () -> {
+            }));
+            assertTrue(sink.writeDiscarded(2, () -> {
+            }));
+        }
+        assertEquals("{\"event\":\"occurrences\",\"count\":3,\"exception\":"
+                        + "\"java.lang.IllegalStateException: Oxygen leak !!!\"}\n"
+                        + "{\"event\":\"discarded\",\"count\":2}\n",
+                decode(out.toByteArray(), ReportFormat.NDJSON));
+    }
+
+    @Test
+    void testInvalidStream() {
+        assertThrows(IOException.class,
+                () -> decode("Oxygen leak !!!".getBytes(StandardCharsets.UTF_8), ReportFormat.TEXT));
+    }
+
+    @Test
+    void testPrintedWhenWritingFails() {
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Disk full");
+            }
+        };
+        HintCommand ht = new HintCommand().binarySink(new BinaryReportSink(failing, 1, false));
+        handleException(ht, new IllegalStateException("Oxygen leak !!!"));
+        assertEquals("\n" + ht.getErrorPrefix() + ht.getDefaultSeparator() + ht.getDefaultExceptionMessage()
+                + "Oxygen leak !!!\n", errContent.toString());
+    }
+
+    @Test
+    void testBufferedReportsPrintedWhenWritingFails() {
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Disk full");
+            }
+        };
+        // reports are buffered until the sink is flushed
+        BinaryReportSink sink = new BinaryReportSink(failing, BinaryReportSink.DEFAULT_BLOCK_SIZE, false);
+        HintCommand ht = new HintCommand().binarySink(sink);
+        handleException(ht, new IllegalStateException("Oxygen leak !!!"));
+        handleException(ht, new IllegalStateException("Fuel leak !!!"));
+        assertEquals("", errContent.toString());
+
+        assertThrows(IOException.class, sink::flush);
+        final String errorPrefix = ht.getErrorPrefix() + ht.getDefaultSeparator() + ht.getDefaultExceptionMessage();
+        assertEquals("\n" + errorPrefix + "Oxygen leak !!!\n" + "\n" + errorPrefix + "Fuel leak !!!\n",
+                errContent.toString());
+
+        // next reports are printed
+        handleException(ht, new IllegalStateException("Hull breach !!!"));
+        assertTrue(errContent.toString().endsWith("\n" + errorPrefix + "Hull breach !!!\n"));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExitStrategyTest extends HintTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCallback() {
+        List<String> printedBeforeExit = new ArrayList<>();
+        HintCommand ht = new HintCommand()
+                .defaultExitCode(3)
+                .asyncReporting(16, OverflowPolicy.DISCARD_NEWEST)
+                .exitStrategy(ExitStrategy.callback(exitCode -> printedBeforeExit.add(exitCode + errContent.toString())));
+        handleException(ht, new IllegalStateException("Oxygen leak !!!"));
+        // pending report was printed before the callback
+        assertEquals(1, printedBeforeExit.size());
+        assertTrue(printedBeforeExit.get(0).startsWith("3"));
+        assertTrue(printedBeforeExit.get(0).contains("Oxygen leak !!!"));
+    }
+
+    @Test
+    void testNoExitWithDefaultExitCode() {
+        List<Integer> exitCodes = new ArrayList<>();
+        handleException(new HintCommand().exitStrategy(ExitStrategy.callback(exitCodes::add)),
+                new IllegalStateException("Oxygen leak !!!"));
+        assertTrue(exitCodes.isEmpty());
+    }
+
+    @Test
+    void testNegativeDeadline() {
+        assertThrows(IllegalArgumentException.class, () -> ExitStrategy.halt(-1));
+    }
+
+    @Test
+    void testHaltSkipsShutdownHooks() throws Exception {
+        String output = runHalting("hook");
+        assertTrue(output.contains("Oxygen leak !!!"), output);
+        assertFalse(output.contains("shutdown hook"), output);
+    }
+
+    @Test
+    void testHaltAfterDeadline() throws Exception {
+        long start = System.nanoTime();
+        String output = runHalting("blocked");
+        assertTrue(output.contains("Oxygen leak !!!"), output);
+        // flushing would block forever
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 30);
+    }
+
+    @Test
+    void testHaltPrintsSummaries() throws Exception {
+        String output = runHalting("summary");
+        assertTrue(output.contains("1 more occurrences of java.lang.IllegalStateException: Oxygen leak !!!"), output);
+        assertTrue(output.contains("Fuel leak !!!"), output);
+    }
+
+    private String runHalting(String mode) throws Exception {
+        File log = new File(tempDir.toFile(), mode + ".log");
+        Process process = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                Halting.class.getName(), mode)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        assertEquals(3, process.exitValue());
+        return new String(Files.readAllBytes(log.toPath()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Fails with exit code 3, run in other processes
+     */
+    public static final class Halting {
+        public static void main(String[] args) throws IOException {
+            if ("summary".equals(args[0])) {
+                // a repeated occurrence is only counted, its summary is pending when the JVM is halted
+                HintCommand command = new HintCommand().deduplicationWindow(60_000);
+                HintExceptionHandler handler = new HintExceptionHandler(command);
+                for (int i = 0; i < 2; i++) {
+                    handler.uncaughtException(Thread.currentThread(), new IllegalStateException("Oxygen leak !!!"));
+                }
+                new HintExceptionHandler(command.defaultExitCode(3).exitStrategy(ExitStrategy.halt(200)))
+                        .uncaughtException(Thread.currentThread(), new IllegalStateException("Fuel leak !!!"));
+                throw new IllegalStateException("JVM was not halted");
+            }
+            HintExceptionHandler handler = new HintExceptionHandler(new HintCommand()
+                    .defaultExitCode(3)
+                    .exitStrategy(ExitStrategy.halt(200)));
+            if ("hook".equals(args[0])) {
+                // a hook which would hang System.exit
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    System.err.println("shutdown hook");
+                    try {
+                        Thread.sleep(Long.MAX_VALUE);
+                    } catch (InterruptedException ignored) {
+                        // never interrupted
+                    }
+                }));
+            } else {
+                // report is printed, but flushing it before exiting blocks
+                handler.setPrintWriter(new PrintWriter(new StringWriter()) {
+                    private boolean printed;
+
+                    @Override
+                    public void flush() {
+                        if (!printed) {
+                            printed = true;
+                            System.err.println(out.toString());
+                            return;
+                        }
+                        try {
+                            Thread.sleep(Long.MAX_VALUE);
+                        } catch (InterruptedException ignored) {
+                            // never interrupted
+                        }
+                    }
+                });
+            }
+            handler.uncaughtException(Thread.currentThread(), new IllegalStateException("Oxygen leak !!!"));
+            throw new IllegalStateException("JVM was not halted");
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package io.hint;
 
+import io.hint.annotation.Hint;
 import io.hint.exception.HintRuntimeException;
 import io.hint.io.WrappedPrintWriter;
 import org.junit.jupiter.api.Assumptions;
@@ -26,6 +27,14 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class HintCommonsTest extends HintTest {
 
+    @Hint(defaultExceptionMessage = "reflective")
+    static class GeneratedSpaceship {
+    }
+
+    @Hint(defaultExceptionMessage = "reflective")
+    static class StaleSpaceship {
+    }
+
     @Test
     void testDefaultBehaviorWithoutHint() {
         final String errMsg = "Oxygen leak !!!";
@@ -152,4 +161,40 @@ class HintCommonsTest extends HintTest {
         assertTrue(HintExceptionHandler.isBlank(" "));
         assertFalse(HintExceptionHandler.isBlank("HINT"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testHintDefaults() {
+        Hint expected = HintCommand.class.getAnnotation(Hint.class);
+        Hint actual = HintDefaults.INSTANCE;
+        assertEquals(expected.showStackTrace(), actual.showStackTrace());
+        assertEquals(expected.showHints(), actual.showHints());
+        assertEquals(expected.maxStackFrames(), actual.maxStackFrames());
+        assertArrayEquals(expected.collapsedPackages(), actual.collapsedPackages());
+        assertEquals(expected.deduplicationWindow(), actual.deduplicationWindow());
+        assertEquals(expected.defaultExceptionMessage(), actual.defaultExceptionMessage());
+        assertEquals(expected.defaultDocsMessage(), actual.defaultDocsMessage());
+        assertEquals(expected.defaultExitCode(), actual.defaultExitCode());
+        assertEquals(expected.hintPrefix(), actual.hintPrefix());
+        assertEquals(expected.errorPrefix(), actual.errorPrefix());
+        assertEquals(expected.stackPrefix(), actual.stackPrefix());
+        assertEquals(expected.docsPrefix(), actual.docsPrefix());
+        assertEquals(expected.defaultDocsSeparator(), actual.defaultDocsSeparator());
+        assertEquals(expected.defaultSeparator(), actual.defaultSeparator());
+        assertEquals(expected.docsUrl(), actual.docsUrl());
+    }
+
+    @Test
+    void testGeneratedHintConfig() {
+        HintCommand ht = new HintCommand(new GeneratedSpaceship());
+        assertEquals("generated", ht.getDefaultExceptionMessage());
+        assertTrue(ht.canShowStackTrace());
+    }
+
+    @Test
+    void testStaleGeneratedHintConfig() {
+        // generated for another version of Hint
+        HintCommand ht = new HintCommand(new StaleSpaceship());
+        assertEquals("reflective", ht.getDefaultExceptionMessage());
+        assertFalse(ht.canShowStackTrace());
+    }
+}
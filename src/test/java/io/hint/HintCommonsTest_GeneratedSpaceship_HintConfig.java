@@ -0,0 +1,108 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.annotation.GeneratedHintConfig;
+import io.hint.annotation.Hint;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Stands for the configuration generated by take-a-hint-codegen for {@code HintCommonsTest.GeneratedSpaceship}
+ */
+public final class HintCommonsTest_GeneratedSpaceship_HintConfig implements Hint {
+    public static final int HINT_VERSION = GeneratedHintConfig.VERSION;
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return Hint.class;
+    }
+
+    @Override
+    public boolean showStackTrace() {
+        return true;
+    }
+
+    @Override
+    public boolean showHints() {
+        return true;
+    }
+
+    @Override
+    public int maxStackFrames() {
+        return 0;
+    }
+
+    @Override
+    public String[] collapsedPackages() {
+        return new String[]{};
+    }
+
+    @Override
+    public long deduplicationWindow() {
+        return 0;
+    }
+
+    @Override
+    public String defaultExceptionMessage() {
+        return "generated";
+    }
+
+    @Override
+    public String defaultDocsMessage() {
+        return "";
+    }
+
+    @Override
+    public int defaultExitCode() {
+        return 1;
+    }
+
+    @Override
+    public String hintPrefix() {
+        return "";
+    }
+
+    @Override
+    public String errorPrefix() {
+        return "";
+    }
+
+    @Override
+    public String stackPrefix() {
+        return "";
+    }
+
+    @Override
+    public String docsPrefix() {
+        return "";
+    }
+
+    @Override
+    public String defaultDocsSeparator() {
+        return "";
+    }
+
+    @Override
+    public String defaultSeparator() {
+        return "";
+    }
+
+    @Override
+    public String docsUrl() {
+        return "";
+    }
+}
@@ -0,0 +1,130 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.concurrent.HintScheduledThreadPoolExecutor;
+import io.hint.concurrent.HintThreadFactory;
+import io.hint.concurrent.HintThreadPoolExecutor;
+import io.hint.concurrent.Hints;
+import io.hint.exception.HintRuntimeException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HintConcurrentTest extends HintTest {
+    private static final String ERR_MSG = "Oxygen leak !!!";
+
+    private static String expectedReport(HintCommand ht) {
+        return "\n" + ht.getErrorPrefix() + ht.getDefaultSeparator() + ht.getDefaultExceptionMessage() + ERR_MSG + "\n";
+    }
+
+    private static void failingTask() {
+        throw new IllegalStateException(ERR_MSG);
+    }
+
+    @Test
+    void testThreadFactory() throws InterruptedException {
+        HintCommand ht = new HintCommand();
+        Thread thread = new HintThreadFactory(ht.getConfig()).newThread(HintConcurrentTest::failingTask);
+        assertTrue(thread.getUncaughtExceptionHandler() instanceof HintExceptionHandler);
+        thread.start();
+        thread.join();
+        assertEquals(expectedReport(ht), errContent.toString());
+    }
+
+    @Test
+    void testSubmittedTaskFailure() throws InterruptedException {
+        HintCommand ht = new HintCommand();
+        ExecutorService executor = new HintThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), ht.getConfig());
+        executor.submit(() -> "success");
+        executor.submit(HintConcurrentTest::failingTask);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(expectedReport(ht), errContent.toString());
+    }
+
+    @Test
+    void testExecutedTaskFailure() throws InterruptedException {
+        HintCommand ht = new HintCommand();
+        List<Thread> workers = new CopyOnWriteArrayList<>();
+        ExecutorService executor = new HintThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread worker = new Thread(r);
+                    workers.add(worker);
+                    return worker;
+                }, ht.getConfig());
+        executor.execute(HintConcurrentTest::failingTask);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        // the pool may terminate before the dying worker thread reports its exception
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // reported once, by the handler of the worker thread
+        assertEquals(expectedReport(ht), errContent.toString());
+    }
+
+    @Test
+    void testScheduledTaskFailure() throws InterruptedException {
+        HintCommand ht = new HintCommand();
+        ScheduledExecutorService executor = new HintScheduledThreadPoolExecutor(1, ht.getConfig());
+        ScheduledFuture<?> future =
+                executor.scheduleAtFixedRate(HintConcurrentTest::failingTask, 0, 1, TimeUnit.MILLISECONDS);
+        executor.schedule(() -> "success", 0, TimeUnit.MILLISECONDS);
+        assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        // periodic executions stop after the first failure
+        assertEquals(expectedReport(ht), errContent.toString());
+    }
+
+    @Test
+    void testWhenFailed() {
+        HintCommand ht = new HintCommand();
+        IllegalStateException failure = new IllegalStateException(ERR_MSG);
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
+            throw HintRuntimeException.of(failure, "Check oxygen tanks");
+        });
+        CompletionStage<String> stage = Hints.whenFailed(future.thenApply(String::trim), ht.getConfig());
+        assertThrows(CompletionException.class, () -> stage.toCompletableFuture().join());
+        // hints of the original exception are reported, not the async wrapper
+        assertEquals("\n" + ht.getErrorPrefix() + ht.getDefaultSeparator() + ht.getDefaultExceptionMessage()
+                        + failure + "\n\n" + ht.getHintPrefix() + ht.getDefaultSeparator() + "Check oxygen tanks\n",
+                errContent.toString());
+    }
+
+    @Test
+    void testUnwrapAsyncFailure() {
+        IllegalStateException failure = new IllegalStateException(ERR_MSG);
+        assertSame(failure, HintExceptionHandler.unwrapAsyncFailure(
+                new CompletionException(new ExecutionException(failure))));
+        CompletionException withoutCause = new CompletionException(ERR_MSG, null);
+        assertSame(withoutCause, HintExceptionHandler.unwrapAsyncFailure(withoutCause));
+    }
+}
@@ -17,8 +17,16 @@ package io.hint;
 
 import io.hint.common.NoExitSecurityManager;
 import io.hint.exception.HintRuntimeException;
+import io.hint.exception.HintSignal;
 import org.junit.jupiter.api.*;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class HintExceptionHandlerTest extends HintTest {
@@ -342,4 +350,143 @@ class HintExceptionHandlerTest extends HintTest {
             assertEquals(expectedMsg, errContent.toString());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testHintSignal() {
+        final String hintMsg = "Check the oxygen tank";
+        final String errorMsg = "Oxygen leak !!!";
+        final HintSignal oxygenLeak = HintSignal.of(hintMsg, errorMsg);
+        class Spaceship {
+            private void goToMars() {
+                throw oxygenLeak;
+            }
+        }
+        Spaceship spaceShip = new Spaceship();
+        HintCommand ht = new HintCommand(spaceShip);
+        String expectedMsg = "\n" + ht.getErrorPrefix() + ht.getDefaultSeparator() + errorMsg
+                + "\n\n" + ht.getHintPrefix() + ht.getDefaultSeparator() + hintMsg + "\n";
+        for (int i = 0; i < 2; i++) {
+            errContent.reset();
+            try {
+                spaceShip.goToMars();
+            } catch (HintSignal ex) {
+                handleException(ht, ex);
+                assertEquals(expectedMsg, errContent.toString());
+            }
+        }
+    }
+
+    @Test
+    void testDefaultExceptionMessageWithPercentSign() {
+        final String errMsg = "Oxygen leak !!!";
+        final String defaultMsg = "100% failed : ";
+        HintCommand ht = new HintCommand().defaultExceptionMessage(defaultMsg);
+        handleException(ht, new IllegalStateException(errMsg));
+        assertEquals("\n" + ht.getErrorPrefix() + ht.getDefaultSeparator() + defaultMsg + errMsg + "\n",
+                errContent.toString());
+    }
+
+    @Test
+    void testSettingsChangedAfterReport() {
+        final String errMsg = "Oxygen leak !!!";
+        final String errorPrefix = "EPrefix";
+        HintCommand ht = new HintCommand();
+        handleException(ht, new IllegalStateException(errMsg));
+        errContent.reset();
+        ht.errorPrefix(errorPrefix);
+        handleException(ht, new IllegalStateException(errMsg));
+        assertEquals("\n" + errorPrefix + ht.getDefaultSeparator() + ht.getDefaultExceptionMessage() + errMsg + "\n",
+                errContent.toString());
+    }
+
+    @Test
+    void testMaxStackFrames() {
+        final String errMsg = "Oxygen leak !!!";
+        class Spaceship {
+            private void goToMars() {
+                throw new IllegalStateException(errMsg);
+            }
+        }
+        Spaceship spaceShip = new Spaceship();
+        HintCommand ht =
+                new HintCommand(spaceShip)
+                        .showStackTrace(true)
+                        .maxStackFrames(1);
+        try {
+            spaceShip.goToMars();
+        } catch (IllegalStateException ex) {
+            final String stackPrefix = ht.getStackPrefix() + ht.getDefaultSeparator();
+            String expectedMsg = "\n" + ht.getErrorPrefix()
+                    + ht.getDefaultSeparator()
+                    + ht.getDefaultExceptionMessage()
+                    + ex.getMessage() + "\n\n"
+                    + stackPrefix + ex + "\n"
+                    + stackPrefix + "\tat " + ex.getStackTrace()[0] + "\n"
+                    + stackPrefix + "\t... " + (ex.getStackTrace().length - 1) + " frames omitted\n";
+            handleException(ht, ex);
+            assertEquals(expectedMsg, errContent.toString());
+        }
+    }
+
+    @Test
+    void testHandlerUsesFrozenConfig() {
+        final String errMsg = "Oxygen leak !!!";
+        HintCommand ht = new HintCommand();
+        HintConfig config = ht.getConfig();
+        assertSame(config, ht.getConfig());
+
+        HintExceptionHandler exceptionHandler = new HintExceptionHandler(ht);
+        ht.errorPrefix("EPrefix");
+        assertNotSame(config, ht.getConfig());
+        assertEquals("EPrefix", ht.getConfig().getErrorPrefix());
+
+        // settings changed after handler creation are not applied to its reports
+        exceptionHandler.uncaughtException(Thread.currentThread(), new IllegalStateException(errMsg));
+        assertEquals("\n" + config.getErrorPrefix() + ht.getDefaultSeparator()
+                + ht.getDefaultExceptionMessage() + errMsg + "\n", errContent.toString());
+    }
+
+    /**
+     * Counts writes to the underlying stream
+     */
+    static class CountingOutputStream extends ByteArrayOutputStream {
+        int writes;
+
+        @Override
+        public synchronized void write(int b) {
+            writes++;
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writes++;
+            super.write(b, off, len);
+        }
+    }
+
+    @Test
+    void testSingleWritePerReport() throws Exception {
+        IllegalStateException ex = new IllegalStateException("Oxygen leak !!!");
+        HintCommand ht = new HintCommand(new Object()).showStackTrace(true).docsUrl("https://hint.io/docs");
+        Throwable t = HintRuntimeException.of(ex, "Check oxygen tanks");
+
+        // System.err is an auto flush PrintStream
+        CountingOutputStream stream = new CountingOutputStream();
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(new BufferedOutputStream(stream, 128), true, "UTF-8"));
+        try {
+            handleException(ht, t);
+        } finally {
+            System.setErr(err);
+        }
+        assertEquals(1, stream.writes);
+
+        CountingOutputStream writer = new CountingOutputStream();
+        HintExceptionHandler exceptionHandler = new HintExceptionHandler(ht);
+        exceptionHandler.setPrintWriter(new PrintWriter(new OutputStreamWriter(writer, StandardCharsets.UTF_8)));
+        exceptionHandler.uncaughtException(Thread.currentThread(), t);
+        assertEquals(1, writer.writes);
+        assertEquals(stream.toString("UTF-8"), new String(writer.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
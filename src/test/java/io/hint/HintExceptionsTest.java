@@ -17,6 +17,7 @@ package io.hint;
 
 import io.hint.exception.HintException;
 import io.hint.exception.HintRuntimeException;
+import io.hint.exception.HintSignal;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,7 +28,7 @@ class HintExceptionsTest {
         class Spaceship {}
         new HintCommand(new Spaceship()).init();
         Thread.UncaughtExceptionHandler exceptionHandler = Thread.getDefaultUncaughtExceptionHandler();
-        assertTrue(exceptionHandler instanceof HintExceptionHandler);
+        assertTrue(exceptionHandler instanceof LazyExceptionHandler);
     }
 
     @Test
@@ -101,4 +102,51 @@ class HintExceptionsTest {
             assertEquals(errorMsg, e.getCustomErrorMsg());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testHintExceptionWithCauseIsStackless() {
+        IllegalStateException cause = new IllegalStateException("cause");
+        HintException e = HintException.of(cause);
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals(cause.toString(), e.getMessage());
+        e.addSuppressed(new IllegalStateException());
+        assertEquals(0, e.getSuppressed().length);
+    }
+
+    @Test
+    void testHintRuntimeExceptionWithCauseIsStackless() {
+        IllegalStateException cause = new IllegalStateException("cause");
+        HintRuntimeException e = HintRuntimeException.of(cause);
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals(cause.toString(), e.getMessage());
+        e.addSuppressed(new IllegalStateException());
+        assertEquals(0, e.getSuppressed().length);
+    }
+
+    @Test
+    void testHintRuntimeExceptionWithoutCauseHasStackTrace() {
+        HintRuntimeException e = HintRuntimeException.of(null, "This is a hint");
+        assertNotEquals(0, e.getStackTrace().length);
+        assertNull(e.getMessage());
+    }
+
+    @Test
+    void testHintSignal() {
+        final String hintMsg = "This is a hint";
+        final String errorMsg = "This is an error";
+        HintSignal signal = HintSignal.of(hintMsg, errorMsg);
+        for (int i = 0; i < 2; i++) {
+            try {
+                throw signal;
+            } catch (HintSignal e) {
+                assertSame(signal, e);
+                assertNull(e.getCause());
+                assertEquals(0, e.getStackTrace().length);
+                assertEquals(hintMsg, e.getHintsMsg());
+                assertEquals(errorMsg, e.getCustomErrorMsg());
+                assertEquals(errorMsg, e.getMessage());
+            }
+        }
+        assertThrows(IllegalStateException.class, () -> signal.initCause(new IllegalStateException()));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.annotation.HintMessage;
+import io.hint.annotation.HintMessageIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HintMessageResolverTest {
+
+    @HintMessage("class hint")
+    static class Spaceship {
+        @HintMessage("method hint")
+        void goToMars() {
+        }
+
+        @HintMessage(" ")
+        void goToMoon() {
+        }
+
+        void goToVenus() {
+        }
+    }
+
+    static class Rocket {
+        void launch() {
+        }
+    }
+
+    private static StackTraceElement frame(Class<?> cls, String methodName) {
+        return new StackTraceElement(cls.getName(), methodName, null, -1);
+    }
+
+    @Test
+    void testMethodHint() {
+        assertEquals("method hint", HintMessageResolver.resolve(frame(Spaceship.class, "goToMars")));
+    }
+
+    @Test
+    void testBlankMethodHintFallsBackToClassHint() {
+        assertEquals("class hint", HintMessageResolver.resolve(frame(Spaceship.class, "goToMoon")));
+    }
+
+    @Test
+    void testClassHint() {
+        assertEquals("class hint", HintMessageResolver.resolve(frame(Spaceship.class, "goToVenus")));
+    }
+
+    @Test
+    void testNoHint() {
+        assertNull(HintMessageResolver.resolve(frame(Rocket.class, "launch")));
+        // resolution is cached, including negative results
+        assertNull(HintMessageResolver.resolve(frame(Rocket.class, "launch")));
+    }
+
+    @Test
+    void testUnknownClass() {
+        assertNull(HintMessageResolver.resolve(new StackTraceElement("io.hint.Unknown", "run", null, -1)));
+    }
+
+    @Test
+    void testGeneratedIndexes() {
+        HintMessageIndex appIndex = (className, methodName) ->
+                Rocket.class.getName().equals(className) ? "indexed hint" : null;
+        HintMessageIndex libIndex = (className, methodName) ->
+                Rocket.class.getName().equals(className) || "io.hint.Lib".equals(className) ? "library hint" : null;
+        // the first index knowing the class wins
+        assertEquals("indexed hint", HintMessageResolver.resolve(frame(Rocket.class, "launch"), appIndex, libIndex));
+        assertEquals("library hint", HintMessageResolver.resolve(
+                new StackTraceElement("io.hint.Lib", "run", null, -1), appIndex, libIndex));
+        // classes missing from all indexes are resolved using reflection
+        assertEquals("method hint", HintMessageResolver.resolve(frame(Spaceship.class, "goToMars"), appIndex));
+        assertEquals("class hint", HintMessageResolver.resolveClassHint(frame(Spaceship.class, "goToMars"), appIndex));
+    }
+
+    @Test
+    void testIndexedClassWithoutHint() {
+        // the index of its compilation knows the class declares no message, its annotations are not read
+        HintMessageIndex index = new HintMessageIndex() {
+            @Override
+            public String getHintMessage(String className, String methodName) {
+                return null;
+            }
+
+            @Override
+            public boolean isIndexed(String className) {
+                return Spaceship.class.getName().equals(className);
+            }
+        };
+        assertNull(HintMessageResolver.resolve(frame(Spaceship.class, "goToMars"), index));
+        assertNull(HintMessageResolver.resolveClassHint(frame(Spaceship.class, "goToMars"), index));
+        // classes of other compilations are still resolved using reflection
+        HintMessageIndex otherIndex = (className, methodName) -> null;
+        assertEquals("method hint", HintMessageResolver.resolve(frame(Spaceship.class, "goToMars"), otherIndex));
+    }
+
+    @Test
+    void testIsClassHint() {
+        assertTrue(HintMessageResolver.isClassHint(frame(Spaceship.class, "goToVenus"), "class hint"));
+        assertFalse(HintMessageResolver.isClassHint(frame(Spaceship.class, "goToMars"), "method hint"));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.annotation.HintMessage;
+import io.hint.exception.HintRuntimeException;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HintMetricsTest extends HintTest {
+
+    @HintMessage("Check the spaceship")
+    static class Spaceship {
+        @HintMessage("Check oxygen tanks")
+        void goToMars() {
+            throw new IllegalStateException("Oxygen leak !!!");
+        }
+
+        void goToMoon() {
+            throw new IllegalArgumentException("Fuel leak !!!");
+        }
+    }
+
+    private static Throwable thrownBy(Runnable r) {
+        try {
+            r.run();
+        } catch (RuntimeException e) {
+            return e;
+        }
+        throw new IllegalStateException("Nothing thrown");
+    }
+
+    private static HintMetrics reportAll() {
+        HintMetrics metrics = new HintMetrics();
+        HintCommand ht = new HintCommand().metrics(metrics);
+        HintExceptionHandler handler = new HintExceptionHandler(ht);
+        Spaceship spaceship = new Spaceship();
+        handler.uncaughtException(Thread.currentThread(), thrownBy(spaceship::goToMars));
+        handler.uncaughtException(Thread.currentThread(), thrownBy(spaceship::goToMoon));
+        handler.uncaughtException(Thread.currentThread(),
+                HintRuntimeException.of(new IllegalStateException("Oxygen leak !!!"), "Check oxygen tanks"));
+        handler.uncaughtException(Thread.currentThread(), new UnsupportedOperationException());
+        return metrics;
+    }
+
+    @Test
+    void testCounters() {
+        HintMetrics metrics = reportAll();
+        assertEquals(4, metrics.getReportCount());
+
+        Map<String, Long> byType = new HashMap<>();
+        byType.put(IllegalStateException.class.getName(), 2L);
+        byType.put(IllegalArgumentException.class.getName(), 1L);
+        byType.put(UnsupportedOperationException.class.getName(), 1L);
+        assertEquals(byType, metrics.getReportsByExceptionType());
+
+        Map<String, Long> bySource = new HashMap<>();
+        bySource.put("wrapper", 1L);
+        bySource.put("method_annotation", 1L);
+        bySource.put("class_annotation", 1L);
+        bySource.put("none", 1L);
+        assertEquals(bySource, metrics.getReportsByHintSource());
+
+        assertEquals(4, Arrays.stream(metrics.getLatencyBucketCounts()).sum());
+        assertTrue(metrics.getTotalLatency() > 0);
+    }
+
+    @Test
+    void testLatencyBuckets() {
+        long[] bounds = new HintMetrics().getLatencyBucketBounds();
+        assertEquals(1_000, bounds[0]);
+        assertEquals(0, HintMetrics.latencyBucket(0));
+        assertEquals(0, HintMetrics.latencyBucket(1_000));
+        assertEquals(1, HintMetrics.latencyBucket(1_001));
+        assertEquals(2, HintMetrics.latencyBucket(3_000));
+        assertEquals(bounds.length, HintMetrics.latencyBucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testPrometheus() throws IOException {
+        HintMetrics metrics = reportAll();
+        StringWriter writer = new StringWriter();
+        metrics.writePrometheus(writer);
+        String text = writer.toString();
+        assertTrue(text.contains("hint_reports_total{exception=\"java.lang.IllegalStateException\"} 2\n"));
+        assertTrue(text.contains("hint_reports_by_hint_source_total{source=\"wrapper\"} 1\n"));
+        assertTrue(text.contains("hint_handler_duration_seconds_bucket{le=\"+Inf\"} 4\n"));
+        assertTrue(text.contains("hint_handler_duration_seconds_count 4\n"));
+
+        Path dir = Files.createTempDirectory("hint-metrics");
+        Path file = dir.resolve("hint.prom");
+        try {
+            metrics.dumpPrometheus(file);
+            assertEquals(text, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            // only the dumped file is left
+            assertEquals(1, dir.toFile().list().length);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    void testMBean() throws Exception {
+        HintMetrics metrics = reportAll();
+        metrics.register();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(4L, server.getAttribute(new ObjectName(HintMetrics.OBJECT_NAME), "ReportCount"));
+            assertThrows(IllegalStateException.class, () -> new HintMetrics().register());
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(HintMetrics.OBJECT_NAME)));
+    }
+}
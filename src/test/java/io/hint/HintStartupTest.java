@@ -0,0 +1,149 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.annotation.Hint;
+import io.hint.annotation.HintMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HintStartupTest {
+    // -verbose:class output of Java 8, then of unified logging
+    private static final Pattern LOADED_CLASS = Pattern.compile("^\\[(?:Loaded |.*class,load\\] )(\\S+)");
+    private static final String STARTED = "started";
+    // classes of Hint loaded by init() at most
+    private static final int MAX_HINT_CLASSES = 4;
+    // classes loaded by init() at most, including JDK classes
+    private static final int MAX_STARTUP_CLASSES = 8;
+
+    private static final class Startup {
+        private final Set<String> loadedClasses = new LinkedHashSet<>();
+        private final StringBuilder output = new StringBuilder();
+    }
+
+    private static Startup start(String mode) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-verbose:class", "-cp", System.getProperty("java.class.path"),
+                Cli.class.getName(), mode)
+                .redirectErrorStream(true)
+                .start();
+        Startup startup = new Startup();
+        boolean started = false;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = LOADED_CLASS.matcher(line);
+                if (started) {
+                    startup.output.append(line).append('\n');
+                } else if (STARTED.equals(line)) {
+                    started = true;
+                } else if (matcher.find()) {
+                    startup.loadedClasses.add(matcher.group(1));
+                }
+            }
+        }
+        process.waitFor();
+        assertTrue(started, startup.output.toString());
+        return startup;
+    }
+
+    @Test
+    void testInitLoadsNoReportingClass() throws Exception {
+        assertNoReportingClass("init");
+    }
+
+    @Test
+    void testConfiguredInitLoadsNoReportingClass() throws Exception {
+        // settings changed before init() do not read the annotation
+        assertNoReportingClass("configured");
+    }
+
+    private static void assertNoReportingClass(String mode) throws Exception {
+        Set<String> baseline = start("none").loadedClasses;
+        Startup startup = start(mode);
+        Set<String> startupClasses = new LinkedHashSet<>(startup.loadedClasses);
+        startupClasses.removeAll(baseline);
+        Set<String> hintClasses = new LinkedHashSet<>();
+        for (String className : startupClasses) {
+            if (className.startsWith("io.hint.")) {
+                hintClasses.add(className);
+            }
+        }
+
+        assertTrue(startupClasses.size() <= MAX_STARTUP_CLASSES, startupClasses.toString());
+        assertTrue(hintClasses.size() <= MAX_HINT_CLASSES, hintClasses.toString());
+        assertTrue(hintClasses.contains(LazyExceptionHandler.class.getName()), hintClasses.toString());
+        // neither the annotation, the handler nor output classes
+        assertFalse(hintClasses.contains(Hint.class.getName()), hintClasses.toString());
+        assertFalse(hintClasses.contains(HintConfig.class.getName()), hintClasses.toString());
+        assertFalse(hintClasses.contains(HintExceptionHandler.class.getName()), hintClasses.toString());
+        assertFalse(hintClasses.stream().anyMatch(c -> c.startsWith("io.hint.io.")), hintClasses.toString());
+    }
+
+    @Test
+    void testFirstExceptionReported() throws Exception {
+        String output = start("fail").output.toString();
+        // annotation is read when the exception is handled
+        assertTrue(output.contains("Check oxygen tanks"), output);
+        assertTrue(output.contains("Oxygen leak !!!"), output);
+    }
+
+    @Test
+    void testConfiguredSettingsKept() throws Exception {
+        String output = start("configured-fail").output.toString();
+        // changed setting and settings of the annotation
+        assertTrue(output.contains("Cli.launch"), output);
+        assertTrue(output.contains("Check oxygen tanks"), output);
+        assertTrue(output.contains("spaceship error:"), output);
+    }
+
+    /**
+     * Command-line application, run in other processes
+     */
+    @Hint(defaultExitCode = 1, errorPrefix = "spaceship error:")
+    public static final class Cli {
+        @HintMessage("Check oxygen tanks")
+        static void launch() {
+            throw new IllegalStateException("Oxygen leak !!!");
+        }
+
+        public static void main(String[] args) {
+            if (args[0].startsWith("configured")) {
+                new HintCommand(new Cli()).showStackTrace(true).init();
+            } else if (!"none".equals(args[0])) {
+                new HintCommand(new Cli()).init();
+            }
+            System.out.println(STARTED);
+            System.out.flush();
+            if (args[0].endsWith("fail")) {
+                launch();
+            }
+        }
+    }
+}
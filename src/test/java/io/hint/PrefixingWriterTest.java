@@ -0,0 +1,73 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.io.PrefixingWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixingWriterTest {
+
+    private static String write(String... chunks) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        try (PrefixingWriter writer = new PrefixingWriter(sb, "> ")) {
+            for (String chunk : chunks) {
+                writer.write(chunk);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void testSingleLine() throws IOException {
+        assertEquals("Oxygen leak", write("Oxygen leak"));
+    }
+
+    @Test
+    void testLineFeed() throws IOException {
+        assertEquals("Oxygen\n> leak\n> ", write("Oxygen\nleak\n"));
+    }
+
+    @Test
+    void testCarriageReturnLineFeed() throws IOException {
+        assertEquals("Oxygen\r\n> leak", write("Oxygen\r\nleak"));
+        // line break split between two writes
+        assertEquals("Oxygen\r\n> leak", write("Oxygen\r", "\nleak"));
+    }
+
+    @Test
+    void testCarriageReturn() throws IOException {
+        assertEquals("Oxygen\r> leak", write("Oxygen\rleak"));
+        assertEquals("Oxygen\r> leak", write("Oxygen\r", "leak"));
+        // trailing line break is completed when writer gets closed
+        assertEquals("Oxygen\r> ", write("Oxygen\r"));
+    }
+
+    @Test
+    void testCharacters() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        try (PrefixingWriter writer = new PrefixingWriter(sb, "> ")) {
+            for (char c : "a\r\nb\rc\nd".toCharArray()) {
+                writer.write(c);
+            }
+            writer.write("e\nf".toCharArray(), 1, 2);
+        }
+        assertEquals("a\r\n> b\r> c\n> d\n> f", sb.toString());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportDeduplicatorTest extends HintTest {
+
+    // occurrences of the same exception, thrown from the same place
+    private static IllegalStateException[] oxygenLeaks(int count) {
+        IllegalStateException[] leaks = new IllegalStateException[count];
+        for (int i = 0; i < count; i++) {
+            leaks[i] = new IllegalStateException("Oxygen leak !!!");
+        }
+        return leaks;
+    }
+
+    @Test
+    void testRepeatedOccurrences() {
+        AtomicLong clock = new AtomicLong();
+        List<String> summaries = new ArrayList<>();
+        ReportDeduplicator deduplicator = new ReportDeduplicator(1000,
+                (count, description, printer, asyncWriter) -> summaries.add(count + " " + description), clock::get);
+        IllegalStateException[] leaks = oxygenLeaks(5);
+
+        assertEquals(0, deduplicator.register(leaks[0], null, null));
+        clock.addAndGet(500_000_000L);
+        assertEquals(-1, deduplicator.register(leaks[1], null, null));
+        assertEquals(-1, deduplicator.register(leaks[2], null, null));
+        // a different exception is reported
+        assertEquals(0, deduplicator.register(new IllegalStateException("Fuel leak !!!"), null, null));
+
+        // next window reports the exception again, with occurrences not reported
+        clock.addAndGet(500_000_000L);
+        assertEquals(2, deduplicator.register(leaks[3], null, null));
+        assertEquals(-1, deduplicator.register(leaks[4], null, null));
+
+        deduplicator.printSummaries();
+        assertEquals(1, summaries.size());
+        assertEquals("1 java.lang.IllegalStateException: Oxygen leak !!!", summaries.get(0));
+    }
+
+    @Test
+    void testDeduplicationWindow() {
+        HintCommand ht = new HintCommand().deduplicationWindow(60_000);
+        IllegalStateException[] leaks = oxygenLeaks(2);
+        handleException(ht, leaks[0]);
+        String firstReport = errContent.toString();
+        handleException(ht, leaks[1]);
+        assertEquals(firstReport, errContent.toString());
+
+        errContent.reset();
+        ht.getDeduplicator().printSummaries();
+        assertEquals("\n" + ht.getErrorPrefix() + ht.getDefaultSeparator()
+                + "1 more occurrences of java.lang.IllegalStateException: Oxygen leak !!!\n", errContent.toString());
+    }
+
+    @Test
+    void testSummaryUsesOutputOfOccurrences() {
+        HintCommand ht = new HintCommand().deduplicationWindow(60_000);
+        StringWriter out = new StringWriter();
+        HintExceptionHandler handler = new HintExceptionHandler(ht);
+        handler.setPrintWriter(new PrintWriter(out));
+        for (IllegalStateException leak : oxygenLeaks(2)) {
+            handler.uncaughtException(Thread.currentThread(), leak);
+        }
+        String firstReport = out.toString();
+
+        // summarized when the window changes
+        ht.deduplicationWindow(30_000);
+        assertEquals("", errContent.toString());
+        assertEquals(firstReport + "\n" + ht.getErrorPrefix() + ht.getDefaultSeparator()
+                + "1 more occurrences of java.lang.IllegalStateException: Oxygen leak !!!\n", out.toString());
+    }
+
+    @Test
+    void testAsyncSummaryFollowsReports() {
+        HintCommand ht = new HintCommand().deduplicationWindow(60_000)
+                .asyncReporting(16, OverflowPolicy.DISCARD_NEWEST);
+        for (IllegalStateException leak : oxygenLeaks(3)) {
+            handleException(ht, leak);
+        }
+        // queued behind the report, then printed
+        ht.getDeduplicator().printSummaries();
+        String report = errContent.toString();
+        assertTrue(report.endsWith(ht.getErrorPrefix() + ht.getDefaultSeparator()
+                + "2 more occurrences of java.lang.IllegalStateException: Oxygen leak !!!\n"), report);
+        assertTrue(report.indexOf("Oxygen leak !!!") < report.indexOf("more occurrences"), report);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.exception.HintRuntimeException;
+import io.hint.io.RecordWriter;
+import io.hint.io.ThrowableSnapshot;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportFormatTest extends HintTest {
+    private static final String ERR_MSG = "Oxygen leak !!!";
+
+    private static StackTraceElement[] frames() {
+        return new StackTraceElement[]{
+                new StackTraceElement("io.hint.Spaceship", "goToMars", "Spaceship.java", 42),
+                new StackTraceElement("io.hint.Main", "main", "Main.java", 7)
+        };
+    }
+
+    private static RuntimeException failure() {
+        IllegalStateException cause = new IllegalStateException("Tank \"B\" is empty");
+        cause.setStackTrace(new StackTraceElement[0]);
+        RuntimeException e = new RuntimeException(ERR_MSG, cause);
+        e.setStackTrace(frames());
+        return e;
+    }
+
+    @Test
+    void testNdjsonReport() {
+        HintCommand ht = new HintCommand().reportFormat(ReportFormat.NDJSON).showStackTrace(true)
+                .docsUrl("https://hint.io/docs");
+        handleException(ht, failure());
+        assertEquals("{\"event\":\"report\",\"exception\":\"java.lang.RuntimeException\",\"error\":\"" + ERR_MSG
+                        + "\",\"docs\":\"https://hint.io/docs\",\"exit_code\":1,"
+                        + "\"frames\":[\"io.hint.Spaceship.goToMars(Spaceship.java:42)\",\"io.hint.Main.main(Main.java:7)\"],"
+                        + "\"causes\":[\"java.lang.IllegalStateException: Tank \\\"B\\\" is empty\"]}\n",
+                errContent.toString());
+    }
+
+    @Test
+    void testLogfmtReport() {
+        HintCommand ht = new HintCommand().reportFormat(ReportFormat.LOGFMT).maxStackFrames(1).showStackTrace(true);
+        handleException(ht, HintRuntimeException.of(failure(), "Check oxygen tanks"));
+        // as in text reports, the error message of a wrapper describes the wrapped exception
+        assertEquals("event=report exception=java.lang.RuntimeException error=\"java.lang.RuntimeException: "
+                        + ERR_MSG + "\""
+                        + " hint=\"Check oxygen tanks\" exit_code=1"
+                        + " frames=\"io.hint.Spaceship.goToMars(Spaceship.java:42)\" frames_omitted=1"
+                        + " causes=\"java.lang.IllegalStateException: Tank \\\"B\\\" is empty\"\n",
+                errContent.toString());
+    }
+
+    @Test
+    void testStructuredOccurrences() {
+        HintCommand ht = new HintCommand().reportFormat(ReportFormat.NDJSON);
+        StringBuilder sb = new StringBuilder();
+        ht.getConfig().getRenderer().appendOccurrences(sb, 3, "java.lang.RuntimeException: " + ERR_MSG);
+        assertEquals("{\"event\":\"occurrences\",\"count\":3,\"exception\":\"java.lang.RuntimeException: "
+                + ERR_MSG + "\"}", sb.toString());
+
+        sb.setLength(0);
+        new HintCommand().reportFormat(ReportFormat.LOGFMT).getConfig().getRenderer().appendDiscarded(sb, 2);
+        assertEquals("event=discarded count=2", sb.toString());
+    }
+
+    @Test
+    void testJsonEscaping() {
+        StringBuilder sb = new StringBuilder();
+        RecordWriter.ndjson(sb)
+                .field("quotes", "\"a\\b\"")
+                .field("controls", "\n\r\t\b\u0001")
+                .field("separators", "\u2028\u2029")
+                .field("unicode", "\u00e9\u274C\uD83D\uDE80")
+                .field("surrogate", "\uD83D.")
+                .field("skipped", null)
+                .end();
+        assertEquals("{\"quotes\":\"\\\"a\\\\b\\\"\",\"controls\":\"\\n\\r\\t\\u0008\\u0001\","
+                + "\"separators\":\"\\u2028\\u2029\",\"unicode\":\"\u00e9\u274C\uD83D\uDE80\","
+                + "\"surrogate\":\"\\ud83d.\"}", sb.toString());
+
+        sb.setLength(0);
+        RecordWriter.ndjson(sb).end();
+        assertEquals("{}", sb.toString());
+    }
+
+    @Test
+    void testLogfmtEscaping() {
+        StringBuilder sb = new StringBuilder();
+        RecordWriter.logfmt(sb)
+                .field("plain", "java.lang.RuntimeException")
+                .field("empty", "")
+                .field("spaces", "a b")
+                .field("equals", "a=b")
+                .field("quotes", "\"a\\b\"")
+                .field("controls", "a\n\u0001")
+                .field("unicode", "\u00e9")
+                .end();
+        assertEquals("plain=java.lang.RuntimeException empty=\"\" spaces=\"a b\" equals=\"a=b\""
+                + " quotes=\"\\\"a\\\\b\\\"\" controls=\"a\\n\\u0001\" unicode=\u00e9", sb.toString());
+
+        sb.setLength(0);
+        Throwable t = failure();
+        RecordWriter record = RecordWriter.logfmt(sb);
+        assertEquals(0, record.frames("frames", ThrowableSnapshot.of(t), 0));
+        assertEquals("frames=\"io.hint.Spaceship.goToMars(Spaceship.java:42)\\nio.hint.Main.main(Main.java:7)\"",
+                sb.toString());
+    }
+}
@@ -0,0 +1,220 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.exception.HintRuntimeException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportJournalTest extends HintTest {
+    private static final Pattern REPORT_ID = Pattern.compile(" \\(report ([0-9a-z]+)\\)");
+
+    @TempDir
+    Path tempDir;
+
+    private static String reportId(String output) {
+        Matcher matcher = REPORT_ID.matcher(output);
+        assertTrue(matcher.find(), output);
+        return matcher.group(1);
+    }
+
+    @Test
+    void testReportIdPrinted() throws IOException {
+        Path file = tempDir.resolve("journal");
+        try (ReportJournal journal = ReportJournal.open(file)) {
+            HintCommand ht = new HintCommand().journal(journal);
+            handleException(ht, HintRuntimeException.of(new IllegalStateException("Oxygen leak !!!"),
+                    "Check oxygen tanks"));
+            String hinted = errContent.toString();
+            errContent.reset();
+            handleException(ht, new IllegalArgumentException("Fuel leak !!!"));
+            String unhinted = errContent.toString();
+
+            // ID follows the hint, or the error if there is no hint
+            assertTrue(hinted.contains("Check oxygen tanks (report "), hinted);
+            assertTrue(unhinted.contains("Fuel leak !!! (report "), unhinted);
+
+            try (ReportJournalReader reader = ReportJournalReader.open(file)) {
+                ReportJournalReader.Entry entry = reader.read(reportId(hinted));
+                assertEquals(reportId(hinted), entry.getReportId());
+                assertEquals(IllegalStateException.class.getName(), entry.getExceptionType());
+                assertEquals(new IllegalStateException("Oxygen leak !!!").toString(), entry.getError());
+                assertEquals("Check oxygen tanks", entry.getHint());
+                assertTrue(entry.getTopFrame().contains("testReportIdPrinted"));
+                assertTrue(entry.getTime() > 0);
+
+                entry = reader.read(reportId(unhinted));
+                assertEquals("Fuel leak !!!", entry.getError());
+                assertNull(entry.getHint());
+
+                // not a record offset
+                assertNull(reader.read("1"));
+                assertNull(reader.read("?"));
+            }
+        }
+        // reopened journal appends after existing records
+        try (ReportJournal journal = ReportJournal.open(file)) {
+            handleException(new HintCommand().journal(journal), new IllegalStateException("Oxygen leak !!!"));
+        }
+        assertEquals(3, count(file));
+    }
+
+    @Test
+    void testStructuredReportId() throws IOException {
+        try (ReportJournal journal = ReportJournal.open(tempDir.resolve("journal"))) {
+            handleException(new HintCommand().journal(journal).reportFormat(ReportFormat.LOGFMT),
+                    new IllegalStateException("Oxygen leak !!!"));
+        }
+        assertTrue(errContent.toString().contains(" report_id=1s"), errContent.toString());
+    }
+
+    @Test
+    void testNotReportedOccurrencesJournaled() throws IOException {
+        Path file = tempDir.resolve("journal");
+        try (ReportJournal journal = ReportJournal.open(file)) {
+            HintCommand ht = new HintCommand().journal(journal).deduplicationWindow(60_000);
+            IllegalStateException e = new IllegalStateException("Oxygen leak !!!");
+            for (int i = 0; i < 5; i++) {
+                handleException(ht, e);
+            }
+        }
+        assertEquals(5, count(file));
+    }
+
+    @Test
+    void testConcurrentProcesses() throws Exception {
+        final int threads = 4;
+        final int reports = 2000;
+        Path file = tempDir.resolve("journal");
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            processes.add(new ProcessBuilder(
+                    Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    Writer.class.getName(), file.toString(), Integer.toString(reports))
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File(tempDir.toFile(), "writer" + i + ".log"))
+                    .start());
+        }
+        try (ReportJournal journal = ReportJournal.open(file)) {
+            // threads of this process share the same journal
+            List<Thread> writers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                writers.add(new Thread(() -> Writer.append(journal, reports)));
+            }
+            writers.forEach(Thread::start);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+        for (Process process : processes) {
+            assertEquals(0, process.waitFor());
+        }
+
+        Set<String> reportIds = new HashSet<>();
+        try (ReportJournalReader reader = ReportJournalReader.open(file)) {
+            reader.forEach(entry -> {
+                assertTrue(reportIds.add(entry.getReportId()));
+                assertTrue(entry.getError().startsWith("Oxygen leak !!! "), entry.getError());
+            });
+        }
+        // journal was grown by all processes, none of the records is lost
+        assertEquals((threads + 2) * reports, reportIds.size());
+        assertTrue(Files.size(file) > 1024 * 1024);
+    }
+
+    @Test
+    void testSummary() throws IOException {
+        Path file = tempDir.resolve("journal");
+        try (ReportJournal journal = ReportJournal.open(file)) {
+            HintCommand ht = new HintCommand().journal(journal);
+            for (int i = 0; i < 3; i++) {
+                handleException(ht, HintRuntimeException.of(new IllegalStateException("Oxygen leak !!!"),
+                        "Check oxygen tanks"));
+            }
+            handleException(ht, new IllegalArgumentException("Fuel leak !!!"));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReportJournalReader reader = ReportJournalReader.open(file)) {
+            reader.summarize(1, new PrintStream(out, true, "UTF-8"));
+        }
+        assertEquals("Reports: 4" + System.lineSeparator()
+                        + "Top errors:" + System.lineSeparator()
+                        + "       3  java.lang.IllegalStateException: Oxygen leak !!!"
+                        + System.lineSeparator()
+                        + "Top hints:" + System.lineSeparator()
+                        + "       3  Check oxygen tanks" + System.lineSeparator(),
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testNotAJournal() throws IOException {
+        Path file = tempDir.resolve("journal");
+        Files.write(file, "Oxygen leak !!!".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> ReportJournal.open(file));
+        assertThrows(IOException.class, () -> ReportJournalReader.open(file));
+    }
+
+    private static int count(Path file) throws IOException {
+        int[] count = new int[1];
+        try (ReportJournalReader reader = ReportJournalReader.open(file)) {
+            reader.forEach(entry -> count[0]++);
+        }
+        return count[0];
+    }
+
+    /**
+     * Appends reports to a journal, run in other processes
+     */
+    public static final class Writer {
+        public static void main(String[] args) throws IOException {
+            Path file = Paths.get(args[0]);
+            int reports = Integer.parseInt(args[1]);
+            try (ReportJournal journal = ReportJournal.open(file)) {
+                append(journal, reports);
+            }
+        }
+
+        static void append(ReportJournal journal, int reports) {
+            for (int i = 0; i < reports; i++) {
+                try {
+                    assertNotNull(journal.append(IllegalStateException.class.getName(),
+                            "Oxygen leak !!! " + i + " of " + Thread.currentThread().getName(),
+                            "Check oxygen tanks", null));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.io.StackFrameWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StackFrameWriterTest {
+    private static final String LS = System.lineSeparator();
+
+    private static StackTraceElement frame(String className, String methodName, int lineNumber) {
+        return new StackTraceElement(className, methodName,
+                className.substring(className.lastIndexOf('.') + 1) + ".java", lineNumber);
+    }
+
+    private static Throwable spaceshipFailure() {
+        StackTraceElement main = frame("io.hint.Main", "main", 10);
+        StackTraceElement invoke = frame("sun.reflect.NativeMethodAccessorImpl", "invoke", 62);
+        StackTraceElement execute = frame("picocli.CommandLine", "execute", 1200);
+        StackTraceElement run = frame("io.hint.Spaceship", "run", 20);
+        StackTraceElement goToMars = frame("io.hint.Spaceship", "goToMars", 30);
+
+        IllegalStateException cause = new IllegalStateException("Oxygen leak !!!");
+        cause.setStackTrace(new StackTraceElement[]{goToMars, run, execute, invoke, main});
+        RuntimeException suppressed = new RuntimeException("Can't close hatch");
+        suppressed.setStackTrace(new StackTraceElement[]{run, execute, invoke, main});
+        RuntimeException e = new RuntimeException("Mission failed", cause);
+        e.setStackTrace(new StackTraceElement[]{run, execute, invoke, main});
+        e.addSuppressed(suppressed);
+        return e;
+    }
+
+    @Test
+    void testSameOutputAsPrintStackTrace() {
+        Throwable t = spaceshipFailure();
+        StringWriter expected = new StringWriter();
+        t.printStackTrace(new PrintWriter(expected));
+
+        StringBuilder sb = new StringBuilder();
+        new StackFrameWriter("", 0).write(t, sb);
+        assertEquals(expected.toString(), sb.toString());
+    }
+
+    @Test
+    void testLinePrefix() {
+        StringBuilder sb = new StringBuilder();
+        new StackFrameWriter("> ", 0).write(spaceshipFailure(), sb);
+        for (String line : sb.toString().split(LS)) {
+            assertTrue(line.startsWith("> "));
+        }
+    }
+
+    @Test
+    void testMaxFrames() {
+        Throwable t = new IllegalStateException("Oxygen leak !!!");
+        t.setStackTrace(new StackTraceElement[]{
+                frame("io.hint.Spaceship", "goToMars", 30),
+                frame("io.hint.Spaceship", "run", 20),
+                frame("io.hint.Main", "main", 10)});
+        StringBuilder sb = new StringBuilder();
+        new StackFrameWriter("", 1).write(t, sb);
+        assertEquals(t + LS
+                + "\tat io.hint.Spaceship.goToMars(Spaceship.java:30)" + LS
+                + "\t... 2 frames omitted" + LS, sb.toString());
+    }
+
+    @Test
+    void testCollapsedPackages() {
+        Throwable t = spaceshipFailure().getCause();
+        StringBuilder sb = new StringBuilder();
+        new StackFrameWriter("", 0, "sun.reflect", "picocli").write(t, sb);
+        assertEquals(t + LS
+                + "\tat io.hint.Spaceship.goToMars(Spaceship.java:30)" + LS
+                + "\tat io.hint.Spaceship.run(Spaceship.java:20)" + LS
+                + "\t... 2 framework frames" + LS
+                + "\tat io.hint.Main.main(Main.java:10)" + LS, sb.toString());
+    }
+
+    @Test
+    void testCircularReference() {
+        RuntimeException first = new RuntimeException("first");
+        RuntimeException second = new RuntimeException("second", first);
+        first.initCause(second);
+        StringBuilder sb = new StringBuilder();
+        new StackFrameWriter("", 1).write(first, sb);
+        assertTrue(sb.toString().contains("[CIRCULAR REFERENCE: " + first + "]"));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.annotation.HintMessage;
+import io.hint.exception.HintRuntimeException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportEventIT extends HintTest {
+    private static final String REPORT_EVENT = "io.hint.Report";
+
+    static class Spaceship {
+        @HintMessage("Check oxygen tanks")
+        void goToMars() {
+            throw new IllegalStateException("Oxygen leak !!!");
+        }
+    }
+
+    private static List<RecordedEvent> recordReportEvents(Runnable action) throws Exception {
+        Path file = Files.createTempFile("hint-report", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable(REPORT_EVENT).withThreshold(Duration.ZERO);
+                recording.start();
+                action.run();
+                recording.stop();
+                recording.dump(file);
+            }
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals(REPORT_EVENT)) {
+                    events.add(event);
+                }
+            }
+            return events;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Throwable failure(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            return e;
+        }
+        throw new AssertionError("no exception thrown");
+    }
+
+    private static void assertPhases(RecordedEvent event, boolean written) {
+        long lookup = event.getDuration("lookupDuration").toNanos();
+        long prepare = event.getDuration("prepareDuration").toNanos();
+        long render = event.getDuration("renderDuration").toNanos();
+        long write = event.getDuration("writeDuration").toNanos();
+        assertTrue(lookup >= 0);
+        assertTrue(prepare > 0);
+        assertEquals(written, render > 0 && write > 0);
+        assertTrue(lookup + prepare + render + write <= event.getDuration().toNanos());
+    }
+
+    @Test
+    void testWrapperHintEvent() throws Exception {
+        HintCommand ht = new HintCommand().showStackTrace(true);
+        Throwable t = HintRuntimeException.of(new IllegalArgumentException("Oxygen leak !!!"), "Check oxygen tanks");
+        List<RecordedEvent> events = recordReportEvents(() -> handleException(ht, t));
+
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals(IllegalArgumentException.class.getName(), event.getClass("exceptionClass").getName());
+        assertEquals("wrapper", event.getString("hintSource"));
+        assertFalse(event.getBoolean("suppressed"));
+        assertTrue(event.getBoolean("stackTracePrinted"));
+        assertEquals(1, event.getInt("exitCode"));
+        assertPhases(event, true);
+    }
+
+    @Test
+    void testAsyncReportEvent() throws Exception {
+        HintCommand ht = new HintCommand().asyncReporting(16, OverflowPolicy.DISCARD_NEWEST);
+        Throwable t = new IllegalStateException("Oxygen leak !!!");
+        List<RecordedEvent> events = recordReportEvents(() -> {
+            handleException(ht, t);
+            assertTrue(ht.getConfig().getAsyncWriter().drain());
+        });
+
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        // committed by the writer thread, once printed
+        assertEquals("hint-report-writer", event.getThread().getJavaName());
+        assertFalse(event.getBoolean("suppressed"));
+        assertPhases(event, true);
+    }
+
+    @Test
+    void testSuppressedReportEvent() throws Exception {
+        HintCommand ht = new HintCommand().deduplicationWindow(60_000);
+        Spaceship spaceship = new Spaceship();
+        List<Throwable> failures = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            failures.add(failure(spaceship::goToMars));
+        }
+        List<RecordedEvent> events = recordReportEvents(() -> failures.forEach(t -> handleException(ht, t)));
+
+        assertEquals(2, events.size());
+        for (RecordedEvent event : events) {
+            assertEquals(IllegalStateException.class.getName(), event.getClass("exceptionClass").getName());
+            assertEquals("method_annotation", event.getString("hintSource"));
+            assertFalse(event.getBoolean("stackTracePrinted"));
+        }
+        assertFalse(events.get(0).getBoolean("suppressed"));
+        assertPhases(events.get(0), true);
+        // a repeated occurrence is only counted
+        assertTrue(events.get(1).getBoolean("suppressed"));
+        assertPhases(events.get(1), false);
+    }
+}
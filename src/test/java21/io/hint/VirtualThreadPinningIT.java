@@ -0,0 +1,208 @@
+/*
+   Copyright 2020 Taha BASRI
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package io.hint;
+
+import io.hint.concurrent.VirtualThreads;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningIT extends HintTest {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int THREADS = 50;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Output parking each writing thread, as a slow terminal or pipe does
+     */
+    static class SlowOutputStream extends FilterOutputStream {
+        SlowOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            out.write(b, off, len);
+        }
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private static List<RecordedEvent> recordPinnedEvents(Action action) throws Exception {
+        Path file = Files.createTempFile("hint-pinning", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO);
+                recording.start();
+                action.run();
+                recording.stop();
+                recording.dump(file);
+            }
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals(PINNED_EVENT)) {
+                    events.add(event);
+                }
+            }
+            return events;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void runAll(ThreadFactory factory, Runnable task) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = factory.newThread(task);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Test
+    void testNoPinnedCarrierThreads() throws Exception {
+        assertTrue(VirtualThreads.isSupported());
+        // subclasses of PrintStream are synchronized
+        PrintStream slowErr = new PrintStream(new SlowOutputStream(errContent), true) {
+        };
+        PrintStream err = System.err;
+        System.setErr(slowErr);
+        try {
+            // printing directly from virtual threads pins their carrier thread
+            List<RecordedEvent> directEvents = recordPinnedEvents(() -> runAll(Thread.ofVirtual().factory(),
+                    () -> System.err.println("Oxygen leak !!!")));
+            assertFalse(directEvents.isEmpty());
+            errContent.reset();
+
+            HintCommand ht = new HintCommand();
+            List<RecordedEvent> hintEvents = recordPinnedEvents(() -> {
+                runAll(VirtualThreads.newThreadFactory(ht.getConfig()), () -> {
+                    throw new IllegalStateException("Oxygen leak !!!");
+                });
+                assertTrue(ht.getConfig().getVirtualThreadWriter().drain());
+            });
+            assertEquals(List.of(), hintEvents);
+        } finally {
+            System.setErr(err);
+        }
+
+        String report = "\n" + new HintCommand().getErrorPrefix() + new HintCommand().getDefaultSeparator()
+                + new HintCommand().getDefaultExceptionMessage() + "Oxygen leak !!!\n";
+        assertEquals(report.repeat(THREADS), errContent.toString());
+    }
+
+    @Test
+    void testNoPinnedCarrierThreadsWithJournal() throws Exception {
+        Path file = tempDir.resolve("journal");
+        try (ReportJournal journal = ReportJournal.open(file)) {
+            // repeated occurrences are only journaled, by the writer thread as well
+            HintCommand ht = new HintCommand().journal(journal).deduplicationWindow(60_000);
+            List<RecordedEvent> hintEvents = recordPinnedEvents(() -> {
+                runAll(VirtualThreads.newThreadFactory(ht.getConfig()), () -> {
+                    throw new IllegalStateException("Oxygen leak !!!");
+                });
+                assertTrue(ht.getConfig().getVirtualThreadWriter().drain());
+            });
+            assertEquals(List.of(), hintEvents);
+            ht.getConfig().getDeduplicator().close();
+        }
+
+        AtomicInteger entries = new AtomicInteger();
+        try (ReportJournalReader reader = ReportJournalReader.open(file)) {
+            reader.forEach(entry -> {
+                assertEquals(IllegalStateException.class.getName(), entry.getExceptionType());
+                entries.incrementAndGet();
+            });
+        }
+        assertEquals(THREADS, entries.get());
+        assertTrue(errContent.toString().contains("Oxygen leak !!! (report "), errContent.toString());
+    }
+
+    @Test
+    void testNoReportLostWhenQueueIsFull() throws Exception {
+        // the writer thread prints nothing until every virtual thread has reported, the queue overflows
+        CountDownLatch released = new CountDownLatch(1);
+        PrintStream blockingErr = new PrintStream(errContent, true) {
+            @Override
+            public void print(String s) {
+                // waits without holding the lock of the stream, virtual threads may print meanwhile
+                if (Thread.currentThread().getName().equals("hint-report-writer")) {
+                    try {
+                        released.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.print(s);
+            }
+        };
+        PrintStream err = System.err;
+        System.setErr(blockingErr);
+        int failures = 2000;
+        try {
+            HintCommand ht = new HintCommand();
+            ThreadFactory factory = VirtualThreads.newThreadFactory(ht.getConfig());
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < failures; i++) {
+                Thread thread = factory.newThread(() -> {
+                    throw new IllegalStateException("Oxygen leak !!!");
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            released.countDown();
+            assertTrue(ht.getConfig().getVirtualThreadWriter().drain());
+        } finally {
+            System.setErr(err);
+        }
+
+        String output = errContent.toString();
+        assertEquals(failures, output.split("Oxygen leak !!!", -1).length - 1);
+        assertFalse(output.contains("discarded"), output);
+    }
+}
@@ -0,0 +1,142 @@
+package io.hint.benchmarks;
+
+import io.hint.annotation.NativeImageAnnotationProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.processing.Processor;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * <p>Measures annotation processing of a synthetic project by take-a-hint-codegen,
+ * with javac {@code -proc:only} so that classes are not compiled.</p>
+ *
+ * <ul>
+ *     <li>{@code none}: sources parsed without any processor, the baseline</li>
+ *     <li>{@code codegen}: configuration classes, hint messages index and native-image metadata generated</li>
+ * </ul>
+ *
+ * <p>Each class has a {@code @HintMessage} method, every 10th class is annotated with {@code @Hint}
+ * and every 5th class with {@code @HintMessage}.</p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnnotationProcessingBenchmark {
+    private static final int CLASSES_PER_PACKAGE = 100;
+
+    @Param({"10000"})
+    private int classes;
+
+    @Param({"none", "codegen"})
+    private String processor;
+
+    private Path sourceDirectory;
+    private List<File> sources;
+    private Path outputDirectory;
+
+    @Setup(Level.Trial)
+    public void generateSources() throws IOException {
+        sourceDirectory = Files.createTempDirectory("hint-sources");
+        sources = new ArrayList<>(classes);
+        for (int i = 0; i < classes; i++) {
+            String packageName = "synthetic.p" + i / CLASSES_PER_PACKAGE;
+            Path packageDirectory = sourceDirectory.resolve(packageName.replace('.', File.separatorChar));
+            Files.createDirectories(packageDirectory);
+            Path source = packageDirectory.resolve("Command" + i + ".java");
+            Files.write(source, source(packageName, i).getBytes(StandardCharsets.UTF_8));
+            sources.add(source.toFile());
+        }
+    }
+
+    private static String source(String packageName, int i) {
+        StringBuilder sb = new StringBuilder()
+                .append("package ").append(packageName).append(";\n\n")
+                .append("import io.hint.annotation.Hint;\n")
+                .append("import io.hint.annotation.HintMessage;\n\n");
+        if (i % 10 == 0) {
+            sb.append("@Hint(defaultExitCode = 2, docsUrl = \"https://example.com/commands/").append(i).append("\")\n");
+        }
+        if (i % 5 == 0) {
+            sb.append("@HintMessage(\"Check settings of command ").append(i).append("\")\n");
+        }
+        return sb.append("public class Command").append(i).append(" {\n")
+                .append("    @HintMessage(\"Check arguments of command ").append(i).append("\")\n")
+                .append("    void run(String name, int[] values) {\n")
+                .append("    }\n")
+                .append("}\n")
+                .toString();
+    }
+
+    @Setup(Level.Iteration)
+    public void createOutputDirectory() throws IOException {
+        outputDirectory = Files.createTempDirectory("hint-output");
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteOutputDirectory() throws IOException {
+        delete(outputDirectory);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSources() throws IOException {
+        delete(sourceDirectory);
+    }
+
+    @Benchmark
+    public boolean process() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<Processor> processors = "codegen".equals(processor)
+                ? Collections.singletonList(new NativeImageAnnotationProcessor())
+                : Collections.emptyList();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager,
+                    // notes on each annotated element are discarded
+                    diagnostic -> {
+                    },
+                    Arrays.asList("-proc:only", "-implicit:none",
+                            "-classpath", System.getProperty("java.class.path"),
+                            "-d", outputDirectory.toString(), "-s", outputDirectory.toString(),
+                            "-Ahint.groupId=io.hint", "-Ahint.artifactId=synthetic"),
+                    null, fileManager.getJavaFileObjectsFromFiles(sources));
+            task.setProcessors(processors);
+            return task.call();
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
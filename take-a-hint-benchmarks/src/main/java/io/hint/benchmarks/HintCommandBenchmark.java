@@ -0,0 +1,54 @@
+package io.hint.benchmarks;
+
+import io.hint.HintCommand;
+import io.hint.HintConfig;
+import io.hint.annotation.Hint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures {@link HintCommand} construction once warmed up, as when commands are built repeatedly
+ * (tests, embedded CLIs), see {@code HintCommandStartupBenchmark} for the first construction.</p>
+ *
+ * <p>{@code config} also freezes settings into a {@link HintConfig}, as done by {@code init()}
+ * and by each picocli handler.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HintCommandBenchmark {
+
+    @Hint(showStackTrace = true, docsUrl = "https://github.com/tahabasri/take-a-hint")
+    public static class GeneratedCli {
+    }
+
+    private Object generatedCli;
+
+    @Setup
+    public void setUp() {
+        generatedCli = new GeneratedCli();
+    }
+
+    @Benchmark
+    public HintCommand construction() {
+        return new HintCommand(generatedCli);
+    }
+
+    @Benchmark
+    public HintConfig config() {
+        return new HintCommand(generatedCli).getConfig();
+    }
+}
@@ -0,0 +1,67 @@
+package io.hint.benchmarks;
+
+import io.hint.HintCommand;
+import io.hint.HintConfig;
+import io.hint.annotation.Hint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures the first configuration of {@link HintCommand} in a fresh JVM, as it happens with the first
+ * handled exception: settings are only read when they are frozen into a {@code HintConfig}.</p>
+ *
+ * <ul>
+ *     <li>{@code generatedConfiguration}: configuration class generated by take-a-hint-codegen</li>
+ *     <li>{@code annotationConfiguration}: annotation read using reflection (local classes are not processed)</li>
+ *     <li>{@code defaultConfiguration}: no annotation at all</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(30)
+@State(Scope.Benchmark)
+public class HintCommandStartupBenchmark {
+
+    @Hint(showStackTrace = true, docsUrl = "https://github.com/tahabasri/take-a-hint")
+    public static class GeneratedCli {
+    }
+
+    private Object generatedCli;
+    private Object reflectiveCli;
+
+    @Setup
+    public void setUp() {
+        @Hint(showStackTrace = true, docsUrl = "https://github.com/tahabasri/take-a-hint")
+        class ReflectiveCli {
+        }
+        generatedCli = new GeneratedCli();
+        reflectiveCli = new ReflectiveCli();
+    }
+
+    @Benchmark
+    public HintConfig generatedConfiguration() {
+        return new HintCommand(generatedCli).getConfig();
+    }
+
+    @Benchmark
+    public HintConfig annotationConfiguration() {
+        return new HintCommand(reflectiveCli).getConfig();
+    }
+
+    @Benchmark
+    public HintConfig defaultConfiguration() {
+        return new HintCommand().getConfig();
+    }
+}
@@ -0,0 +1,53 @@
+package io.hint.benchmarks;
+
+import io.hint.exception.HintException;
+import io.hint.exception.HintRuntimeException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures the cost of wrapping a cause inside Hint throwables.</p>
+ *
+ * <p>{@code stackTraceWrapper} creates a wrapper the way the factories used to do it ({@code super(cause)}),
+ * capturing the full stacktrace of the wrapper, it is the reference for {@code HintRuntimeException.of}
+ * and {@code HintException.of} which create stackless wrappers.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HintExceptionFactoryBenchmark {
+    private Throwable cause;
+
+    @Setup
+    public void setUp() {
+        cause = new IllegalArgumentException("Invalid value");
+    }
+
+    @Benchmark
+    public RuntimeException stackTraceWrapper() {
+        return new RuntimeException(cause);
+    }
+
+    @Benchmark
+    public HintRuntimeException hintRuntimeException() {
+        return HintRuntimeException.of(cause, "Check the value", "Validation failed");
+    }
+
+    @Benchmark
+    public HintException hintException() {
+        return HintException.of(cause, "Check the value", "Validation failed");
+    }
+}
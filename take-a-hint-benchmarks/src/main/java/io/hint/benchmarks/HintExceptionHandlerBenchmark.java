@@ -0,0 +1,101 @@
+package io.hint.benchmarks;
+
+import io.hint.HintCommand;
+import io.hint.HintExceptionHandler;
+import io.hint.annotation.HintMessage;
+import io.hint.exception.HintRuntimeException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures a whole report by {@link HintExceptionHandler#uncaughtException}, written to a null sink.</p>
+ *
+ * <ul>
+ *     <li>{@code plain}: exception without any hint</li>
+ *     <li>{@code hintRuntimeException}: cause wrapped with a hint by {@code HintRuntimeException.of}</li>
+ *     <li>{@code methodHintMessage} and {@code classHintMessage}: hint declared with {@code @HintMessage}
+ *     on the method or the class throwing the exception, looked up in the index generated by take-a-hint-codegen</li>
+ *     <li>{@code multiLineMessage}: message of several lines, each one prefixed</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HintExceptionHandlerBenchmark {
+
+    @HintMessage("Check the spaceship")
+    public static class Spaceship {
+        @HintMessage("Check oxygen tanks")
+        static void goToMars() {
+            throw new IllegalStateException("Oxygen leak !!!");
+        }
+
+        static void goToMoon() {
+            throw new IllegalStateException("Fuel leak !!!");
+        }
+    }
+
+    @Param({"plain", "hintRuntimeException", "methodHintMessage", "classHintMessage", "multiLineMessage"})
+    public String exception;
+
+    @Param({"false", "true"})
+    public boolean showStackTrace;
+
+    private HintExceptionHandler handler;
+    private Thread thread;
+    private Throwable throwable;
+
+    @Setup
+    public void setUp() {
+        handler = new HintExceptionHandler(new HintCommand().showStackTrace(showStackTrace));
+        handler.setPrintWriter(new PrintWriter(new NullWriter()));
+        thread = Thread.currentThread();
+        throwable = create(exception);
+    }
+
+    private static Throwable create(String exception) {
+        switch (exception) {
+            case "plain":
+                return new IllegalStateException("Oxygen leak !!!");
+            case "hintRuntimeException":
+                return HintRuntimeException.of(new IllegalStateException("Oxygen leak !!!"), "Check oxygen tanks");
+            case "methodHintMessage":
+                return thrownBy(Spaceship::goToMars);
+            case "classHintMessage":
+                return thrownBy(Spaceship::goToMoon);
+            case "multiLineMessage":
+                return new IllegalStateException("Oxygen leak !!!\nPressure is dropping\r\nAbort the mission");
+            default:
+                throw new IllegalArgumentException("Unknown exception: " + exception);
+        }
+    }
+
+    private static Throwable thrownBy(Runnable r) {
+        try {
+            r.run();
+        } catch (RuntimeException e) {
+            return e;
+        }
+        throw new IllegalStateException("Nothing thrown");
+    }
+
+    @Benchmark
+    public void uncaughtException() {
+        handler.uncaughtException(thread, throwable);
+    }
+}
@@ -0,0 +1,25 @@
+package io.hint.benchmarks;
+
+import java.io.Writer;
+
+/**
+ * Discards everything written, so benchmarks measure reports without output cost
+ */
+final class NullWriter extends Writer {
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,75 @@
+package io.hint.benchmarks;
+
+import io.hint.HintCommand;
+import io.hint.picocli.PicocliExecutionExceptionHandler;
+import io.hint.picocli.PicocliParameterExceptionHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import picocli.CommandLine;
+
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures picocli handlers reporting an exception, written to a null sink.</p>
+ *
+ * <p>Handlers are called directly, so picocli parsing and execution are not measured.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PicocliHandlerBenchmark {
+
+    @CommandLine.Command(name = "spaceship")
+    public static class Spaceship implements Runnable {
+        @CommandLine.Option(names = "--destination", required = true)
+        String destination;
+
+        @Override
+        public void run() {
+            throw new IllegalStateException("Oxygen leak !!!");
+        }
+    }
+
+    private CommandLine commandLine;
+    private PicocliExecutionExceptionHandler executionExceptionHandler;
+    private PicocliParameterExceptionHandler parameterExceptionHandler;
+    private Exception executionException;
+    private CommandLine.ParameterException parameterException;
+    private String[] args;
+
+    @Setup
+    public void setUp() {
+        Spaceship spaceship = new Spaceship();
+        commandLine = new CommandLine(spaceship);
+        commandLine.setErr(new PrintWriter(new NullWriter()));
+        HintCommand ht = new HintCommand(spaceship);
+        executionExceptionHandler = new PicocliExecutionExceptionHandler(ht);
+        parameterExceptionHandler = new PicocliParameterExceptionHandler(ht);
+        executionException = new IllegalStateException("Oxygen leak !!!");
+        parameterException = new CommandLine.MissingParameterException(commandLine,
+                commandLine.getCommandSpec().findOption("--destination"), "Missing required option: '--destination'");
+        args = new String[0];
+    }
+
+    @Benchmark
+    public int executionExceptionHandler() {
+        return executionExceptionHandler.handleExecutionException(executionException, commandLine, null);
+    }
+
+    @Benchmark
+    public int parameterExceptionHandler() throws Exception {
+        return parameterExceptionHandler.handleParseException(parameterException, args);
+    }
+}
@@ -0,0 +1,91 @@
+package io.hint.benchmarks;
+
+import io.hint.BinaryReportSink;
+import io.hint.HintCommand;
+import io.hint.HintExceptionHandler;
+import io.hint.ReportFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures a report with its stacktrace by {@link HintExceptionHandler#uncaughtException} in each output format,
+ * written to a null sink.</p>
+ *
+ * <ul>
+ *     <li>{@code text}, {@code ndjson} and {@code logfmt}: printed reports</li>
+ *     <li>{@code binary}: reports written by {@link BinaryReportSink} in deflated blocks</li>
+ *     <li>{@code binaryUncompressed}: reports written by {@link BinaryReportSink} without compression</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ReportFormatBenchmark {
+
+    @Param({"text", "ndjson", "logfmt", "binary", "binaryUncompressed"})
+    public String format;
+
+    private HintExceptionHandler handler;
+    private Thread thread;
+    private Throwable throwable;
+
+    @Setup
+    public void setUp() {
+        HintCommand hintCommand = new HintCommand().showStackTrace(true);
+        switch (format) {
+            case "text":
+            case "ndjson":
+            case "logfmt":
+                hintCommand.reportFormat(ReportFormat.valueOf(format.toUpperCase()));
+                break;
+            case "binary":
+                hintCommand.binarySink(new BinaryReportSink(new NullOutputStream()));
+                break;
+            case "binaryUncompressed":
+                hintCommand.binarySink(new BinaryReportSink(new NullOutputStream(),
+                        BinaryReportSink.DEFAULT_BLOCK_SIZE, false));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        handler = new HintExceptionHandler(hintCommand);
+        handler.setPrintWriter(new PrintWriter(new NullWriter()));
+        thread = Thread.currentThread();
+        throwable = new IllegalStateException("Oxygen leak !!!");
+    }
+
+    @Benchmark
+    public void uncaughtException() {
+        handler.uncaughtException(thread, throwable);
+    }
+
+    /**
+     * Discards everything written
+     */
+    private static final class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
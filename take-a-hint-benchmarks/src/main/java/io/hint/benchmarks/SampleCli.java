@@ -0,0 +1,26 @@
+package io.hint.benchmarks;
+
+import io.hint.HintCommand;
+import io.hint.annotation.Hint;
+import io.hint.annotation.HintMessage;
+
+/**
+ * <p>Command-line application failing right after startup, run by {@link TimeToFirstHint}
+ * as a native executable and on the JVM.</p>
+ *
+ * <p>Its settings and hint are generated by take-a-hint-codegen, along with native-image metadata.</p>
+ */
+@Hint(defaultExitCode = 2, docsUrl = "https://github.com/tahabasri/take-a-hint")
+public class SampleCli {
+    static final String HINT = "Check oxygen tanks";
+
+    @HintMessage(HINT)
+    static void launch(String[] args) {
+        throw new IllegalStateException("Oxygen leak !!!");
+    }
+
+    public static void main(String[] args) {
+        new HintCommand(new SampleCli()).init();
+        launch(args);
+    }
+}
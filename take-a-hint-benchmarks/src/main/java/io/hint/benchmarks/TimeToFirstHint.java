@@ -0,0 +1,72 @@
+package io.hint.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Measures time from process start to the hint of {@link SampleCli} on its error output,
+ * for each given command.</p>
+ *
+ * <pre>
+ * TimeToFirstHint runs label command... [-- label command...]
+ * </pre>
+ */
+public final class TimeToFirstHint {
+
+    private TimeToFirstHint() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = Integer.parseInt(args[0]);
+        List<List<String>> commands = new ArrayList<>();
+        List<String> command = new ArrayList<>();
+        for (String arg : Arrays.asList(args).subList(1, args.length)) {
+            if ("--".equals(arg)) {
+                commands.add(command);
+                command = new ArrayList<>();
+            } else {
+                command.add(arg);
+            }
+        }
+        commands.add(command);
+
+        System.out.printf("%-10s %10s %10s %10s%n", "Command", "Min (ms)", "Median", "Max");
+        for (List<String> c : commands) {
+            long[] times = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                times[i] = timeToFirstHint(c.subList(1, c.size()));
+            }
+            Arrays.sort(times);
+            System.out.printf("%-10s %10.1f %10.1f %10.1f%n", c.get(0),
+                    times[0] / 1e6, times[runs / 2] / 1e6, times[runs - 1] / 1e6);
+        }
+    }
+
+    /**
+     * @return nanoseconds from process start to its hint
+     */
+    private static long timeToFirstHint(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long hint = -1;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (hint < 0 && line.contains(SampleCli.HINT)) {
+                    hint = System.nanoTime() - start;
+                }
+            }
+        }
+        process.waitFor();
+        if (hint < 0) {
+            throw new IllegalStateException("No hint printed by " + command);
+        }
+        return hint;
+    }
+}
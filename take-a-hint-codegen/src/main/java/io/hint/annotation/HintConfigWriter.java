@@ -0,0 +1,83 @@
+package io.hint.annotation;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.JavaFileObject;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+import static io.hint.annotation.SourceLiterals.literal;
+
+/**
+ * Generates an implementation of {@link Hint} returning the annotation values of a class as constants,
+ * so {@code HintCommand} can be configured without reading annotations using reflection
+ */
+class HintConfigWriter {
+    private final Filer filer;
+    private final Elements elementUtils;
+
+    HintConfigWriter(Filer filer, Elements elementUtils) {
+        this.filer = filer;
+        this.elementUtils = elementUtils;
+    }
+
+    /**
+     * @return fully qualified name of the generated class
+     */
+    String write(TypeElement hintClass) throws IOException {
+        String className = GeneratedHintConfig.getClassName(elementUtils.getBinaryName(hintClass).toString());
+        int lastDot = className.lastIndexOf('.');
+        String packageName = lastDot == -1 ? "" : className.substring(0, lastDot);
+        String simpleName = className.substring(lastDot + 1);
+
+        JavaFileObject sourceFile = filer.createSourceFile(className, hintClass);
+        try (Writer writer = new BufferedWriter(sourceFile.openWriter())) {
+            if (!packageName.isEmpty()) {
+                writer.write("package " + packageName + ";\n\n");
+            }
+            writer.write("import io.hint.annotation.Hint;\n\n");
+            writer.write("import java.lang.annotation.Annotation;\n\n");
+            writer.write("/**\n * Generated by take-a-hint-codegen from {@code @Hint} of {@code "
+                    + hintClass.getQualifiedName() + "}, do not edit.\n */\n");
+            writer.write("public final class " + simpleName + " implements Hint {\n");
+            // checked by HintCommand, which reads the annotation if this class lacks attributes of its Hint
+            writer.write("    public static final int " + GeneratedHintConfig.VERSION_FIELD + " = "
+                    + GeneratedHintConfig.VERSION + ";\n\n");
+            writer.write("    @Override\n");
+            writer.write("    public Class<? extends Annotation> annotationType() {\n");
+            writer.write("        return Hint.class;\n");
+            writer.write("    }\n");
+
+            // explicit values and defaults of each annotation attribute
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e
+                    : elementUtils.getElementValuesWithDefaults(getHintMirror(hintClass)).entrySet()) {
+                writer.write("\n    @Override\n");
+                writer.write("    public " + e.getKey().getReturnType() + " " + e.getKey().getSimpleName() + "() {\n");
+                String arrayCreation = e.getValue().getValue() instanceof List
+                        ? "new " + e.getKey().getReturnType() + " "
+                        : "";
+                writer.write("        return " + arrayCreation + literal(e.getValue()) + ";\n");
+                writer.write("    }\n");
+            }
+            writer.write("}\n");
+        }
+        return className;
+    }
+
+    private AnnotationMirror getHintMirror(TypeElement hintClass) {
+        TypeElement hintType = elementUtils.getTypeElement(Hint.class.getCanonicalName());
+        for (AnnotationMirror mirror : hintClass.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().asElement().equals(hintType)) {
+                return mirror;
+            }
+        }
+        throw new IllegalArgumentException(hintClass + " is not annotated with @" + Hint.class.getSimpleName());
+    }
+}
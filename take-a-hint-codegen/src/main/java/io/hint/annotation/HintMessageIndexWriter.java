@@ -0,0 +1,177 @@
+package io.hint.annotation;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static io.hint.annotation.SourceLiterals.literal;
+
+/**
+ * <p>Generates {@link HintMessageIndex} implementation, so hint messages can be looked up without reflection.</p>
+ *
+ * <p>Each compilation has its own indexes, registered as service providers: an index is named after the classes
+ * it indexes, so indexes of a library and of an application using it do not shadow each other on the classpath.</p>
+ *
+ * <p>Compiled classes without any message are indexed as well, so they are not read using reflection.</p>
+ */
+class HintMessageIndexWriter {
+    // keep each generated method far below the 64KB bytecode limit
+    private static final int STATEMENTS_PER_METHOD = 500;
+    private static final String SIMPLE_NAME_PREFIX = "HintMessageIndex_";
+    private static final String SERVICE_FILE = "META-INF/services/" + HintMessageIndex.class.getName();
+
+    private final Filer filer;
+    private final Elements elementUtils;
+
+    HintMessageIndexWriter(Filer filer, Elements elementUtils) {
+        this.filer = filer;
+        this.elementUtils = elementUtils;
+    }
+
+    /**
+     * @param hintMessageElements classes to index with their annotated methods
+     * @param noHintClasses       compiled classes to index which declare no message, at least one class in total
+     * @return fully qualified name of the generated class
+     */
+    String write(Map<TypeElement, List<Element>> hintMessageElements, Collection<TypeElement> noHintClasses)
+            throws IOException {
+        List<String> statements = new ArrayList<>();
+        // binary names of indexed classes, sorted so the name of the index does not depend on processing order
+        SortedSet<String> classNames = new TreeSet<>();
+        for (TypeElement noHintClass : noHintClasses) {
+            classNames.add(elementUtils.getBinaryName(noHintClass).toString());
+        }
+        for (Map.Entry<TypeElement, List<Element>> e : hintMessageElements.entrySet()) {
+            // e.getKey() => enclosingElement
+            // e.getValue() => list of methods
+            String className = elementUtils.getBinaryName(e.getKey()).toString();
+            classNames.add(className);
+            HintMessage classHint = e.getKey().getAnnotation(HintMessage.class);
+            if (classHint != null && !isBlank(classHint.value())) {
+                statements.add(String.format("CLASS_HINTS.put(%s, %s);",
+                        literal(className), literal(classHint.value())));
+            }
+            // a blank method message falls back to the class message,
+            // overloaded methods keep the first non-blank message
+            Set<String> methodNames = new LinkedHashSet<>();
+            for (Element method : e.getValue()) {
+                HintMessage methodHint = method.getAnnotation(HintMessage.class);
+                String methodName = method.getSimpleName().toString();
+                if (!isBlank(methodHint.value()) && methodNames.add(methodName)) {
+                    statements.add(String.format("putMethodHint(%s, %s, %s);",
+                            literal(className), literal(methodName), literal(methodHint.value())));
+                }
+            }
+        }
+
+        for (String className : classNames) {
+            statements.add(String.format("INDEXED_CLASSES.add(%s);", literal(className)));
+        }
+
+        // in the package of the first indexed class, which belongs to this compilation
+        String firstClass = classNames.first();
+        int lastDot = firstClass.lastIndexOf('.');
+        String packageName = lastDot == -1 ? "" : firstClass.substring(0, lastDot);
+        String simpleName = SIMPLE_NAME_PREFIX + Integer.toHexString(String.join(",", classNames).hashCode());
+        String indexName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        Set<Element> originatingElements = new LinkedHashSet<>(hintMessageElements.keySet());
+        originatingElements.addAll(noHintClasses);
+        JavaFileObject sourceFile = filer.createSourceFile(indexName, originatingElements.toArray(new Element[0]));
+        try (Writer writer = new BufferedWriter(sourceFile.openWriter())) {
+            if (!packageName.isEmpty()) {
+                writer.write("package " + packageName + ";\n\n");
+            }
+            writer.write("import io.hint.annotation.HintMessageIndex;\n\n");
+            writer.write("import java.util.HashMap;\n");
+            writer.write("import java.util.HashSet;\n");
+            writer.write("import java.util.Map;\n");
+            writer.write("import java.util.Set;\n\n");
+            writer.write("/**\n * Generated by take-a-hint-codegen, do not edit.\n */\n");
+            writer.write("public final class " + simpleName + " implements HintMessageIndex {\n");
+            writer.write("    private static final Map<String, String> CLASS_HINTS = new HashMap<>();\n");
+            writer.write("    private static final Map<String, Map<String, String>> METHOD_HINTS = new HashMap<>();\n");
+            writer.write("    // every class of this index, including the ones without any message\n");
+            writer.write("    private static final Set<String> INDEXED_CLASSES = new HashSet<>();\n\n");
+
+            int methodsCount = (statements.size() + STATEMENTS_PER_METHOD - 1) / STATEMENTS_PER_METHOD;
+            writer.write("    static {\n");
+            for (int i = 0; i < methodsCount; i++) {
+                writer.write("        register" + i + "();\n");
+            }
+            writer.write("    }\n");
+
+            for (int i = 0; i < methodsCount; i++) {
+                writer.write("\n    private static void register" + i + "() {\n");
+                int end = Math.min(statements.size(), (i + 1) * STATEMENTS_PER_METHOD);
+                for (String statement : statements.subList(i * STATEMENTS_PER_METHOD, end)) {
+                    writer.write("        " + statement + "\n");
+                }
+                writer.write("    }\n");
+            }
+
+            writer.write("\n    private static void putMethodHint(String className, String methodName, String hint) {\n");
+            writer.write("        Map<String, String> methodHints = METHOD_HINTS.get(className);\n");
+            writer.write("        if (methodHints == null) {\n");
+            writer.write("            methodHints = new HashMap<>();\n");
+            writer.write("            METHOD_HINTS.put(className, methodHints);\n");
+            writer.write("        }\n");
+            writer.write("        methodHints.put(methodName, hint);\n");
+            writer.write("    }\n\n");
+
+            writer.write("    @Override\n");
+            writer.write("    public String getHintMessage(String className, String methodName) {\n");
+            writer.write("        Map<String, String> methodHints = METHOD_HINTS.get(className);\n");
+            writer.write("        if (methodHints != null) {\n");
+            writer.write("            String hint = methodHints.get(methodName);\n");
+            writer.write("            if (hint != null) {\n");
+            writer.write("                return hint;\n");
+            writer.write("            }\n");
+            writer.write("        }\n");
+            writer.write("        return CLASS_HINTS.get(className);\n");
+            writer.write("    }\n\n");
+
+            writer.write("    @Override\n");
+            writer.write("    public boolean isIndexed(String className) {\n");
+            writer.write("        return INDEXED_CLASSES.contains(className);\n");
+            writer.write("    }\n");
+            writer.write("}\n");
+        }
+
+        return indexName;
+    }
+
+    /**
+     * Registers the indexes of this compilation, found by {@code HintMessageResolver} with
+     * {@link java.util.ServiceLoader}. Written once, with no index an index of an earlier compilation
+     * is not registered anymore.
+     */
+    void writeServiceFile(Collection<String> indexNames, Element... originatingElements) throws IOException {
+        FileObject serviceFile = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE,
+                originatingElements);
+        try (Writer writer = new BufferedWriter(serviceFile.openWriter())) {
+            for (String indexName : indexNames) {
+                writer.write(indexName + "\n");
+            }
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
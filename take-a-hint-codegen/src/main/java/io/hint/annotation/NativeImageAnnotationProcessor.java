@@ -5,50 +5,98 @@ import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
 import javax.tools.Diagnostic;
-import javax.tools.FileObject;
-import javax.tools.StandardLocation;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.Writer;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * <p>Generates configuration classes of {@code @Hint} classes, the index of {@code @HintMessage} elements
+ * and native-image metadata.</p>
+ *
+ * <p>The processor is aggregating: annotated elements are kept across rounds and metadata is written once,
+ * in the final round. Indexes are source files, so classes found in a round are indexed in that round, as javac
+ * does not process sources created in the final round; indexes are registered in the final round. Compiled
+ * classes without any message are indexed too, so that they are not read using reflection at runtime. Metadata from an earlier compilation in the same output directory is merged:
+ * entries of classes which are not compiled again are kept, as long as they are still annotated.</p>
+ */
 public class NativeImageAnnotationProcessor extends AbstractProcessor {
+    // directory of native-image metadata, META-INF/native-image/<groupId>/<artifactId>/
+    static final String GROUP_ID_OPTION = "hint.groupId";
+    static final String ARTIFACT_ID_OPTION = "hint.artifactId";
+    private static final String DEFAULT_GROUP_ID = "io.hint.generated";
+    private static final String DEFAULT_ARTIFACT_ID = "take-a-hint";
+
     private Filer filer;
     private Messager messager;
+    private Elements elementUtils;
+    private HintMessageIndexWriter hintMessageIndexWriter;
+    private HintConfigWriter hintConfigWriter;
+    private NativeImageMetadataWriter nativeImageMetadataWriter;
+    private String metadataDirectory;
+
+    // state kept across rounds
+    private final Set<TypeElement> hintClasses = new LinkedHashSet<>();
+    private final Map<TypeElement, List<Element>> hintMessageElements = new LinkedHashMap<>();
+    // generated classes are instantiated reflectively
+    private final Set<String> generatedClasses = new LinkedHashSet<>();
+    // classes indexed in an earlier round, and indexes generated so far
+    private final Set<TypeElement> indexedClasses = new HashSet<>();
+    private final List<String> indexNames = new ArrayList<>();
+    // binary names of classes compiled now, their entries from an earlier compilation are replaced
+    private final Set<String> compiledClasses = new HashSet<>();
+    // classes compiled in the current round, the ones without any message are indexed as well
+    private final List<TypeElement> roundClasses = new ArrayList<>();
+    private boolean firstRound = true;
+    private boolean failed;
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
         super.init(processingEnv);
         filer = processingEnv.getFiler();
         messager = processingEnv.getMessager();
+        elementUtils = processingEnv.getElementUtils();
+        hintMessageIndexWriter = new HintMessageIndexWriter(filer, elementUtils);
+        hintConfigWriter = new HintConfigWriter(filer, elementUtils);
+        nativeImageMetadataWriter = new NativeImageMetadataWriter(filer, elementUtils, processingEnv.getTypeUtils());
     }
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!failed) {
+                writeMetadata();
+            }
+            return true;
+        }
+        roundClasses.clear();
+        for (Element rootElement : roundEnv.getRootElements()) {
+            addCompiledClasses(rootElement);
+        }
+
         // Iterate over all @Hint annotated elements
-        List<TypeElement> hintClasses = new ArrayList<>();
+        List<TypeElement> newHintClasses = new ArrayList<>();
         for (Element annotatedElement : roundEnv.getElementsAnnotatedWith(Hint.class)) {
             // Check if a class has been annotated with @Hint
             if (annotatedElement.getKind() != ElementKind.CLASS) {
                 messager.printMessage(Diagnostic.Kind.ERROR,
                         String.format("Only classes can be annotated with @%s", Hint.class.getSimpleName()),
                         annotatedElement);
+                failed = true;
                 return true; // Exit processing
             }
 
             // We can cast it, because we know that it of ElementKind.CLASS
             TypeElement typeElement = (TypeElement) annotatedElement;
-            hintClasses.add(typeElement);
+            if (hintClasses.add(typeElement)) {
+                newHintClasses.add(typeElement);
+            }
 
             messager.printMessage(Diagnostic.Kind.NOTE,
                     String.format("Adding class %s with annotation @%s to reflection configuration",
                             Hint.class.getSimpleName(), typeElement.getSimpleName()), annotatedElement);
         }
 
-        Map<TypeElement, List<Element>> hintMessageElements = new HashMap<>();
-
         for (Element annotatedElement : roundEnv.getElementsAnnotatedWith(HintMessage.class)) {
             // Check if a class/method has been annotated with @HintMessage
             if (annotatedElement.getKind() == ElementKind.CLASS) {
@@ -63,15 +111,7 @@ public class NativeImageAnnotationProcessor extends AbstractProcessor {
             } else if (annotatedElement.getKind() == ElementKind.METHOD) {
                 if (annotatedElement.getEnclosingElement().getKind() == ElementKind.CLASS) {
                     TypeElement classElement = (TypeElement) annotatedElement.getEnclosingElement();
-                    if (hintMessageElements.containsKey(classElement)) {
-                        List<Element> methods = hintMessageElements.get(classElement);
-                        methods.add(annotatedElement);
-                        hintMessageElements.put(classElement, methods);
-                    } else {
-                        List<Element> elements = new ArrayList<>();
-                        elements.add(annotatedElement);
-                        hintMessageElements.put(classElement, elements);
-                    }
+                    hintMessageElements.computeIfAbsent(classElement, c -> new ArrayList<>()).add(annotatedElement);
                     messager.printMessage(Diagnostic.Kind.NOTE,
                             String.format(
                                     "Adding method %s with annotation @%s in class %s to reflection configuration",
@@ -84,70 +124,149 @@ public class NativeImageAnnotationProcessor extends AbstractProcessor {
                         String.format("Only classes and methods can be annotated with @%s",
                                 HintMessage.class.getSimpleName()),
                         annotatedElement);
+                failed = true;
                 return true; // Exit processing
             }
         }
 
-        if (!roundEnv.processingOver()) {
-            // generate config file
-            String resourceFile = "META-INF/native-image/reflect-config.json";
+        // generate configuration of each @Hint class, in the round it is found
+        for (TypeElement hintClass : newHintClasses) {
             try {
-                FileObject newFile = filer.createResource(StandardLocation.CLASS_OUTPUT,
-                        "", resourceFile);
-                Writer writer = newFile.openWriter();
-                BufferedWriter bufferedWriter = new BufferedWriter(writer);
-
-                bufferedWriter.write("[\n");
-
-                String classReflectTemplate =
-                        "\t{\n" +
-                                "\t\t\"name\":\"%s\"\n" +
-                                "\t}";
-
-                String fileContent = hintClasses
-                        .stream()
-                        .map(c -> String.format(classReflectTemplate, c.getQualifiedName()))
-                        .collect(Collectors.joining(",\n"));
-
-                bufferedWriter.write(fileContent);
-
-                String hintMsgClassReflectTemplate =
-                        "\t{\n" +
-                                "\t\t\"name\" : \"%s\",\n" +
-                                "\t\t\t\"methods\" : [\n" +
-                                "%s\n" +
-                                "\t\t\t]\n" +
-                                "\t}";
-
-                String hintMsgMethodReflectTemplate = "\t\t\t\t{ \"name\" : \"%s\" }";
-
-                String finalHintMsgContent = hintMessageElements.entrySet().stream().map(e -> {
-                    // e.getKey() => enclosingElement
-                    // e.getValue() => list of methods
-                    String methodsForReflect = e.getValue()
-                            .stream()
-                            .map(m -> String.format(hintMsgMethodReflectTemplate, m.getSimpleName()))
-                            .collect(Collectors.joining(",\n"));
-
-                    return String.format(hintMsgClassReflectTemplate, e.getKey().getQualifiedName(), methodsForReflect);
-                }).collect(Collectors.joining(",\n"));
-
-                if (!fileContent.isEmpty() && !finalHintMsgContent.isEmpty()) {
-                    bufferedWriter.write(",\n" + finalHintMsgContent);
-                }
+                generatedClasses.add(hintConfigWriter.write(hintClass));
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        String.format("Can't generate hint configuration due to : @%s", e.getMessage()),
+                        hintClass);
+            }
+        }
 
-                bufferedWriter.write("\n]");
+        if (firstRound) {
+            firstRound = false;
+            mergeEarlierCompilation();
+        }
 
-                bufferedWriter.close();
-                writer.close();
+        // generate index of hint messages found in this round, including sources generated by other processors
+        Map<TypeElement, List<Element>> newHintMessageElements = new LinkedHashMap<>();
+        for (Map.Entry<TypeElement, List<Element>> e : hintMessageElements.entrySet()) {
+            if (indexedClasses.add(e.getKey())) {
+                newHintMessageElements.put(e.getKey(), e.getValue());
+            }
+        }
+        // only classes, as messages of other types are not indexed; classes generated here are not indexed,
+        // or each index would start a new round
+        List<TypeElement> noHintClasses = new ArrayList<>();
+        for (TypeElement type : roundClasses) {
+            if (type.getKind() == ElementKind.CLASS && !hintMessageElements.containsKey(type)
+                    && !generatedClasses.contains(elementUtils.getBinaryName(type).toString())
+                    && indexedClasses.add(type)) {
+                noHintClasses.add(type);
+            }
+        }
+        if (!newHintMessageElements.isEmpty() || !noHintClasses.isEmpty()) {
+            try {
+                String indexName = hintMessageIndexWriter.write(newHintMessageElements, noHintClasses);
+                indexNames.add(indexName);
+                generatedClasses.add(indexName);
             } catch (IOException e) {
                 messager.printMessage(Diagnostic.Kind.ERROR,
-                        String.format("Can't generate reflection configuration due to : @%s", e.getMessage()));
+                        String.format("Can't generate hint messages index due to : @%s", e.getMessage()));
             }
         }
         return true;
     }
 
+    private void addCompiledClasses(Element element) {
+        if (element.getKind().isClass() || element.getKind().isInterface()) {
+            compiledClasses.add(elementUtils.getBinaryName((TypeElement) element).toString());
+            roundClasses.add((TypeElement) element);
+            for (Element enclosed : element.getEnclosedElements()) {
+                addCompiledClasses(enclosed);
+            }
+        }
+    }
+
+    /**
+     * Adds annotated classes listed by metadata of an earlier compilation, which are not compiled again
+     */
+    private void mergeEarlierCompilation() {
+        for (String className : nativeImageMetadataWriter.readClassNames(getMetadataDirectory())) {
+            if (compiledClasses.contains(className)) {
+                continue;
+            }
+            // class names are binary names, type elements are found by canonical name
+            TypeElement type = elementUtils.getTypeElement(className.replace('$', '.'));
+            if (type == null) {
+                continue;
+            }
+            if (type.getAnnotation(Hint.class) != null && hintClasses.add(type)) {
+                String configClass = GeneratedHintConfig.getClassName(className);
+                if (elementUtils.getTypeElement(configClass) != null) {
+                    generatedClasses.add(configClass);
+                }
+            }
+            List<Element> methods = new ArrayList<>();
+            for (Element enclosed : type.getEnclosedElements()) {
+                if (enclosed.getKind() == ElementKind.METHOD && enclosed.getAnnotation(HintMessage.class) != null) {
+                    methods.add(enclosed);
+                }
+            }
+            if ((!methods.isEmpty() || type.getAnnotation(HintMessage.class) != null)
+                    && !hintMessageElements.containsKey(type)) {
+                hintMessageElements.put(type, methods);
+            }
+        }
+    }
+
+    private void writeMetadata() {
+        List<Element> originatingElements = new ArrayList<>(hintClasses);
+        originatingElements.addAll(hintMessageElements.keySet());
+        try {
+            hintMessageIndexWriter.writeServiceFile(indexNames,
+                    hintMessageElements.keySet().toArray(new Element[0]));
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    String.format("Can't register hint messages indexes due to : @%s", e.getMessage()));
+        }
+        try {
+            nativeImageMetadataWriter.write(getMetadataDirectory(), hintClasses, hintMessageElements,
+                    generatedClasses, originatingElements.toArray(new Element[0]));
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    String.format("Can't generate native-image metadata due to : @%s", e.getMessage()));
+        }
+    }
+
+    private String getMetadataDirectory() {
+        if (metadataDirectory == null) {
+            metadataDirectory = "META-INF/native-image/" + getOption(GROUP_ID_OPTION) + "/"
+                    + getOption(ARTIFACT_ID_OPTION) + "/";
+        }
+        return metadataDirectory;
+    }
+
+    /**
+     * @return value of given option, its default value with a note if it is not set
+     */
+    private String getOption(String name) {
+        String value = processingEnv.getOptions().get(name);
+        if (value == null || value.trim().isEmpty()) {
+            // not a warning, builds with -Werror must not fail for a missing option
+            messager.printMessage(Diagnostic.Kind.NOTE,
+                    String.format("Option -A%s is not set, native-image metadata may clash with other libraries",
+                            name));
+            return GROUP_ID_OPTION.equals(name) ? DEFAULT_GROUP_ID : DEFAULT_ARTIFACT_ID;
+        }
+        return value.trim();
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new LinkedHashSet<>();
+        options.add(GROUP_ID_OPTION);
+        options.add(ARTIFACT_ID_OPTION);
+        return options;
+    }
+
     @Override
     public SourceVersion getSupportedSourceVersion() {
         return SourceVersion.latestSupported();
@@ -0,0 +1,207 @@
+package io.hint.annotation;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static io.hint.annotation.SourceLiterals.literal;
+
+/**
+ * <p>Generates GraalVM native-image metadata under {@code META-INF/native-image/<groupId>/<artifactId>/},
+ * where native-image finds it on the classpath:</p>
+ * <ul>
+ *     <li>{@code reflect-config.json}: classes and methods whose annotations are read using reflection,
+ *     with parameter types of each method, and generated classes instantiated reflectively</li>
+ *     <li>{@code native-image.properties}: generated classes, which only hold constants,
+ *     are initialized at build time</li>
+ * </ul>
+ */
+class NativeImageMetadataWriter {
+    private static final String HINT_COMMAND = "io.hint.HintCommand";
+    private static final String REFLECT_CONFIG = "reflect-config.json";
+    // name of each class entry, as written by classEntry and hintMessageEntry
+    private static final Pattern CLASS_NAME = Pattern.compile("^    \"name\": \"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    private final Filer filer;
+    private final Elements elementUtils;
+    private final Types typeUtils;
+
+    NativeImageMetadataWriter(Filer filer, Elements elementUtils, Types typeUtils) {
+        this.filer = filer;
+        this.elementUtils = elementUtils;
+        this.typeUtils = typeUtils;
+    }
+
+    /**
+     * @param directory           directory of metadata, {@code META-INF/native-image/<groupId>/<artifactId>/}
+     * @param hintClasses         classes annotated with {@code @Hint}
+     * @param hintMessageElements classes with their methods annotated with {@code @HintMessage}
+     * @param generatedClasses    fully qualified names of generated classes
+     * @param originatingElements elements the metadata is generated from
+     */
+    void write(String directory, Collection<TypeElement> hintClasses,
+               Map<TypeElement, List<Element>> hintMessageElements, Collection<String> generatedClasses,
+               Element... originatingElements) throws IOException {
+        List<String> entries = new ArrayList<>();
+        // annotations of HintCommand subclasses and of annotation types are read reflectively
+        entries.add(classEntry(HINT_COMMAND));
+        entries.add(annotationEntry(Hint.class.getName()));
+        entries.add(annotationEntry(HintMessage.class.getName()));
+        for (TypeElement hintClass : hintClasses) {
+            // a single entry for classes with hint messages too, HintCommand has its own @Hint
+            String className = binaryName(hintClass);
+            if (!hintMessageElements.containsKey(hintClass) && !HINT_COMMAND.equals(className)) {
+                entries.add(classEntry(className));
+            }
+        }
+        for (Map.Entry<TypeElement, List<Element>> e : hintMessageElements.entrySet()) {
+            entries.add(hintMessageEntry(e.getKey(), e.getValue()));
+        }
+        for (String generatedClass : generatedClasses) {
+            entries.add("  {\n"
+                    + "    \"name\": " + literal(generatedClass) + ",\n"
+                    + "    \"methods\": [{\"name\": \"<init>\", \"parameterTypes\": []}]\n"
+                    + "  }");
+        }
+        writeResource(directory + REFLECT_CONFIG,
+                entries.stream().collect(Collectors.joining(",\n", "[\n", "\n]\n")), originatingElements);
+
+        StringBuilder properties = new StringBuilder("# Generated by take-a-hint-codegen, do not edit.\n");
+        if (!generatedClasses.isEmpty()) {
+            properties.append("Args = --initialize-at-build-time=")
+                    .append(String.join(",", generatedClasses))
+                    .append('\n');
+        }
+        writeResource(directory + "native-image.properties", properties.toString(), originatingElements);
+    }
+
+    /**
+     * @return binary names of classes in metadata written by an earlier compilation, empty if there is none
+     */
+    List<String> readClassNames(String directory) {
+        CharSequence content;
+        try {
+            content = filer.getResource(StandardLocation.CLASS_OUTPUT, "", directory + REFLECT_CONFIG)
+                    .getCharContent(true);
+        } catch (IOException | RuntimeException e) {
+            // no earlier compilation, or resources can't be read back with this build tool
+            return Collections.emptyList();
+        }
+        List<String> classNames = new ArrayList<>();
+        for (String line : content.toString().split("\n")) {
+            Matcher matcher = CLASS_NAME.matcher(line);
+            if (matcher.find()) {
+                classNames.add(unescape(matcher.group(1)));
+            }
+        }
+        return classNames;
+    }
+
+    /**
+     * @return value of a string literal written by {@link SourceLiterals#literal(String)}, without quotes
+     */
+    private static String unescape(String literal) {
+        StringBuilder sb = new StringBuilder(literal.length());
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (c != '\\' || i + 1 == literal.length()) {
+                sb.append(c);
+                continue;
+            }
+            char escaped = literal.charAt(++i);
+            switch (escaped) {
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    sb.append((char) Integer.parseInt(literal.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default:
+                    sb.append(escaped);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String classEntry(String className) {
+        return "  {\n    \"name\": " + literal(className) + "\n  }";
+    }
+
+    private static String annotationEntry(String className) {
+        return "  {\n    \"name\": " + literal(className) + ",\n    \"allDeclaredMethods\": true\n  }";
+    }
+
+    private String hintMessageEntry(TypeElement type, List<Element> methods) {
+        StringBuilder sb = new StringBuilder("  {\n    \"name\": ").append(literal(binaryName(type)));
+        if (!methods.isEmpty()) {
+            sb.append(",\n    \"methods\": [\n");
+            sb.append(methods.stream()
+                    .map(m -> "      {\"name\": " + literal(m.getSimpleName().toString())
+                            + ", \"parameterTypes\": " + parameterTypes((ExecutableElement) m) + "}")
+                    .collect(Collectors.joining(",\n")));
+            sb.append("\n    ]");
+        }
+        return sb.append("\n  }").toString();
+    }
+
+    private String parameterTypes(ExecutableElement method) {
+        List<String> types = new ArrayList<>();
+        for (VariableElement parameter : method.getParameters()) {
+            types.add(literal(typeName(typeUtils.erasure(parameter.asType()))));
+        }
+        return types.stream().collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    /**
+     * @return type name as expected by native-image: binary name of classes, {@code []} suffix for arrays
+     */
+    private String typeName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return typeName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return binaryName((TypeElement) ((DeclaredType) type).asElement());
+        }
+        // primitive types
+        return type.toString();
+    }
+
+    private String binaryName(TypeElement type) {
+        return elementUtils.getBinaryName(type).toString();
+    }
+
+    private void writeResource(String name, String content, Element... originatingElements) throws IOException {
+        FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", name, originatingElements);
+        try (Writer writer = new BufferedWriter(file.openWriter())) {
+            writer.write(content);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.hint.annotation;
+
+import javax.lang.model.element.AnnotationValue;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes values as Java source literals in generated classes
+ */
+final class SourceLiterals {
+
+    private SourceLiterals() {
+    }
+
+    /**
+     * @return Java literal for the given annotation value (string, primitive or array of those)
+     */
+    static String literal(AnnotationValue annotationValue) {
+        Object value = annotationValue.getValue();
+        if (value instanceof String) {
+            return literal((String) value);
+        } else if (value instanceof List) {
+            return ((List<?>) value).stream()
+                    .map(v -> literal((AnnotationValue) v))
+                    .collect(Collectors.joining(", ", "{", "}"));
+        } else if (value instanceof Long) {
+            // a long literal out of int range does not compile without suffix
+            return value + "L";
+        } else if (value instanceof Float) {
+            return literal((Float) value);
+        } else if (value instanceof Double) {
+            return literal((Double) value);
+        } else if (value instanceof Character) {
+            return appendEscaped(new StringBuilder("'"), (Character) value, '\'').append('\'').toString();
+        } else if (value instanceof Byte) {
+            return "(byte) " + value;
+        } else if (value instanceof Short) {
+            return "(short) " + value;
+        }
+        // int and boolean
+        return String.valueOf(value);
+    }
+
+    private static String literal(Float value) {
+        if (value.isNaN()) {
+            return "Float.NaN";
+        } else if (value.isInfinite()) {
+            return value > 0 ? "Float.POSITIVE_INFINITY" : "Float.NEGATIVE_INFINITY";
+        }
+        return value + "f";
+    }
+
+    private static String literal(Double value) {
+        if (value.isNaN()) {
+            return "Double.NaN";
+        } else if (value.isInfinite()) {
+            return value > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+        }
+        return value + "d";
+    }
+
+    /**
+     * @return Java string literal for the given value
+     */
+    static String literal(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            appendEscaped(sb, value.charAt(i), '"');
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Appends given character of a string or character literal, delimited by the given quote
+     */
+    private static StringBuilder appendEscaped(StringBuilder sb, char c, char quote) {
+        if (c == quote) {
+            return sb.append('\\').append(c);
+        }
+        switch (c) {
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                // keep generated sources independent from the compiler encoding
+                if (c < 0x20 || c >= 0x7f) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+        }
+        return sb;
+    }
+}
@@ -0,0 +1,318 @@
+package io.hint.annotation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeImageAnnotationProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Compiles given sources (file name followed by content) with the processor and the given ones
+     */
+    private static void compile(Path sourceDir, Path outputDir, List<Path> classpath, List<Processor> processors,
+                                String... sources) throws IOException {
+        compile(sourceDir, outputDir, classpath, processors,
+                Arrays.asList("-Ahint.groupId=io.hint.test", "-Ahint.artifactId=test"), sources);
+    }
+
+    /**
+     * Compiles given sources with the processor, the given ones and the given processor options
+     */
+    private static void compile(Path sourceDir, Path outputDir, List<Path> classpath, List<Processor> processors,
+                                List<String> options, String... sources) throws IOException {
+        List<File> sourceFiles = new ArrayList<>();
+        for (int i = 0; i < sources.length; i += 2) {
+            Path sourceFile = sourceDir.resolve(sources[i]);
+            Files.createDirectories(sourceFile.getParent());
+            Files.write(sourceFile, sources[i + 1].getBytes(StandardCharsets.UTF_8));
+            sourceFiles.add(sourceFile.toFile());
+        }
+        Files.createDirectories(outputDir);
+        StringBuilder path = new StringBuilder(System.getProperty("java.class.path"));
+        for (Path entry : classpath) {
+            path.append(File.pathSeparator).append(entry);
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null,
+                StandardCharsets.UTF_8)) {
+            List<String> arguments = new ArrayList<>(Arrays.asList("-d", outputDir.toString(),
+                    "-classpath", path.toString()));
+            arguments.addAll(options);
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, arguments,
+                    null, fileManager.getJavaFileObjectsFromFiles(sourceFiles));
+            List<Processor> allProcessors = new ArrayList<>(processors);
+            allProcessors.add(new NativeImageAnnotationProcessor());
+            task.setProcessors(allProcessors);
+            boolean success = task.call();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                assertNotEquals(Diagnostic.Kind.ERROR, diagnostic.getKind(), diagnostic.toString());
+                assertNotEquals(Diagnostic.Kind.WARNING, diagnostic.getKind(), diagnostic.toString());
+            }
+            assertTrue(success);
+        }
+    }
+
+    private static String readReflectConfig(Path outputDir) throws IOException {
+        return new String(Files.readAllBytes(
+                outputDir.resolve("META-INF/native-image/io.hint.test/test/reflect-config.json")),
+                StandardCharsets.UTF_8);
+    }
+
+    private static List<HintMessageIndex> loadIndexes(Path... outputDirs) throws IOException {
+        URL[] urls = new URL[outputDirs.length];
+        for (int i = 0; i < outputDirs.length; i++) {
+            urls[i] = outputDirs[i].toUri().toURL();
+        }
+        List<HintMessageIndex> indexes = new ArrayList<>();
+        ClassLoader loader = new URLClassLoader(urls, NativeImageAnnotationProcessorTest.class.getClassLoader());
+        for (HintMessageIndex index : ServiceLoader.load(HintMessageIndex.class, loader)) {
+            indexes.add(index);
+        }
+        return indexes;
+    }
+
+    private static String lookup(List<HintMessageIndex> indexes, String className, String methodName) {
+        for (HintMessageIndex index : indexes) {
+            String hint = index.getHintMessage(className, methodName);
+            if (hint != null) {
+                return hint;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void testIndex() throws IOException {
+        Path output = tempDir.resolve("classes");
+        compile(tempDir.resolve("src"), output, new ArrayList<>(), new ArrayList<>(),
+                "com/acme/Spaceship.java", "package com.acme;\n"
+                        + "import io.hint.annotation.HintMessage;\n"
+                        + "@HintMessage(\"class hint\")\n"
+                        + "public class Spaceship {\n"
+                        + "    @HintMessage(\"method hint\") public void goToMars() {}\n"
+                        + "    @HintMessage(\" \") public void goToMoon() {}\n"
+                        + "    public void goToVenus() {}\n"
+                        + "}\n");
+
+        List<HintMessageIndex> indexes = loadIndexes(output);
+        assertEquals(1, indexes.size());
+        assertTrue(indexes.get(0).getClass().getName().startsWith("com.acme.HintMessageIndex_"));
+        assertEquals("method hint", lookup(indexes, "com.acme.Spaceship", "goToMars"));
+        assertEquals("class hint", lookup(indexes, "com.acme.Spaceship", "goToMoon"));
+        assertEquals("class hint", lookup(indexes, "com.acme.Spaceship", "goToVenus"));
+        assertNull(lookup(indexes, "com.acme.Rocket", "launch"));
+    }
+
+    @Test
+    void testClassesWithoutHint() throws IOException {
+        Path output = tempDir.resolve("classes");
+        compile(tempDir.resolve("src"), output, new ArrayList<>(), new ArrayList<>(),
+                "com/acme/Spaceship.java", "package com.acme;\n"
+                        + "import io.hint.annotation.HintMessage;\n"
+                        + "public class Spaceship {\n"
+                        + "    @HintMessage(\"method hint\") public void goToMars() {}\n"
+                        + "}\n",
+                "com/acme/Rocket.java", "package com.acme;\n"
+                        + "public class Rocket {\n"
+                        + "    public void launch() {}\n"
+                        + "    static class Engine {}\n"
+                        + "}\n",
+                "com/acme/Vehicle.java", "package com.acme;\n"
+                        + "public interface Vehicle {\n"
+                        + "}\n");
+
+        // classes without messages are known to the index, so they are not read using reflection
+        List<HintMessageIndex> indexes = loadIndexes(output);
+        assertEquals(1, indexes.size());
+        HintMessageIndex index = indexes.get(0);
+        assertNull(index.getHintMessage("com.acme.Rocket", "launch"));
+        assertTrue(index.isIndexed("com.acme.Spaceship"));
+        assertTrue(index.isIndexed("com.acme.Rocket"));
+        assertTrue(index.isIndexed("com.acme.Rocket$Engine"));
+        // messages of interfaces are not indexed, nor classes of other compilations and generated ones
+        assertFalse(index.isIndexed("com.acme.Vehicle"));
+        assertFalse(index.isIndexed("com.acme.Unknown"));
+        assertFalse(index.isIndexed(index.getClass().getName()));
+    }
+
+    @Test
+    void testHintConfig() throws Exception {
+        Path output = tempDir.resolve("classes");
+        compile(tempDir.resolve("src"), output, new ArrayList<>(), new ArrayList<>(),
+                "com/acme/Spaceship.java", "package com.acme;\n"
+                        + "import io.hint.annotation.Hint;\n"
+                        + "@Hint(deduplicationWindow = 3000000000L, hintPrefix = \"'\\\"\\u2705\")\n"
+                        + "public class Spaceship {\n"
+                        + "}\n");
+
+        // values out of int range and escaped characters are generated as valid literals
+        ClassLoader loader = new URLClassLoader(new URL[]{output.toUri().toURL()},
+                NativeImageAnnotationProcessorTest.class.getClassLoader());
+        Class<?> configClass = loader.loadClass(GeneratedHintConfig.getClassName("com.acme.Spaceship"));
+        assertEquals(GeneratedHintConfig.VERSION, configClass.getField(GeneratedHintConfig.VERSION_FIELD).getInt(null));
+        Hint hint = (Hint) configClass.getDeclaredConstructor().newInstance();
+        assertEquals(3000000000L, hint.deduplicationWindow());
+        assertEquals("'\"\u2705", hint.hintPrefix());
+    }
+
+    @Test
+    void testDefaultCoordinates() throws IOException {
+        // compiled without any warning, so that builds with -Werror do not fail
+        Path output = tempDir.resolve("classes");
+        compile(tempDir.resolve("src"), output, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+                "com/acme/Spaceship.java", "package com.acme;\n"
+                        + "import io.hint.annotation.HintMessage;\n"
+                        + "@HintMessage(\"class hint\")\n"
+                        + "public class Spaceship {\n"
+                        + "}\n");
+
+        assertTrue(Files.exists(
+                output.resolve("META-INF/native-image/io.hint.generated/take-a-hint/reflect-config.json")));
+    }
+
+    @Test
+    void testSeparateCompilations() throws IOException {
+        // a library and an application in the same package, as main and test classes are
+        Path library = tempDir.resolve("library");
+        compile(tempDir.resolve("library-src"), library, new ArrayList<>(), new ArrayList<>(),
+                "com/acme/Engine.java", "package com.acme;\n"
+                        + "import io.hint.annotation.HintMessage;\n"
+                        + "public class Engine {\n"
+                        + "    @HintMessage(\"library hint\") public void start() {}\n"
+                        + "}\n");
+        Path application = tempDir.resolve("application");
+        compile(tempDir.resolve("application-src"), application, Arrays.asList(library), new ArrayList<>(),
+                "com/acme/Main.java", "package com.acme;\n"
+                        + "import io.hint.annotation.HintMessage;\n"
+                        + "public class Main {\n"
+                        + "    @HintMessage(\"application hint\") public void run() { new Engine().start(); }\n"
+                        + "}\n");
+
+        // each compilation keeps its own index, whatever the classpath order
+        for (Path[] classpath : new Path[][]{{library, application}, {application, library}}) {
+            List<HintMessageIndex> indexes = loadIndexes(classpath);
+            assertEquals(2, indexes.size());
+            assertNotEquals(indexes.get(0).getClass().getName(), indexes.get(1).getClass().getName());
+            assertEquals("library hint", lookup(indexes, "com.acme.Engine", "start"));
+            assertEquals("application hint", lookup(indexes, "com.acme.Main", "run"));
+        }
+    }
+
+    /**
+     * Generates an annotated class in the first round, as other annotation processors do
+     */
+    @SupportedAnnotationTypes("*")
+    static class RoverProcessor extends AbstractProcessor {
+        private boolean generated;
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            if (!generated) {
+                generated = true;
+                try (Writer writer = processingEnv.getFiler().createSourceFile("com.acme.Rover").openWriter()) {
+                    writer.write("package com.acme;\n"
+                            + "import io.hint.annotation.Hint;\n"
+                            + "import io.hint.annotation.HintMessage;\n"
+                            + "@Hint(defaultExitCode = 2)\n"
+                            + "public class Rover {\n"
+                            + "    @HintMessage(\"generated hint\") public void drive() {}\n"
+                            + "}\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+    }
+
+    @Test
+    void testGeneratedSources() throws IOException {
+        Path output = tempDir.resolve("classes");
+        compile(tempDir.resolve("src"), output, new ArrayList<>(), Arrays.asList(new RoverProcessor()),
+                "com/acme/Spaceship.java", "package com.acme;\n"
+                        + "import io.hint.annotation.HintMessage;\n"
+                        + "public class Spaceship {\n"
+                        + "    @HintMessage(\"source hint\") public void goToMars() {}\n"
+                        + "}\n");
+
+        // annotated elements of the second round are indexed and registered as well
+        List<HintMessageIndex> indexes = loadIndexes(output);
+        assertEquals(2, indexes.size());
+        assertEquals("source hint", lookup(indexes, "com.acme.Spaceship", "goToMars"));
+        assertEquals("generated hint", lookup(indexes, "com.acme.Rover", "drive"));
+
+        String reflectConfig = readReflectConfig(output);
+        assertTrue(reflectConfig.contains("\"com.acme.Rover\""), reflectConfig);
+        assertTrue(reflectConfig.contains("\"" + GeneratedHintConfig.getClassName("com.acme.Rover") + "\""),
+                reflectConfig);
+        assertTrue(Files.exists(output.resolve("com/acme/Rover_HintConfig.class")));
+    }
+
+    @Test
+    void testIncrementalCompilation() throws IOException {
+        Path output = tempDir.resolve("classes");
+        String engine = "package com.acme;\n"
+                + "import io.hint.annotation.HintMessage;\n"
+                + "public class Engine {\n"
+                + "    @HintMessage(\"engine hint\") public void start() {}\n"
+                + "}\n";
+        String spaceship = "package com.acme;\n"
+                + "import io.hint.annotation.HintMessage;\n"
+                + "public class Spaceship {\n"
+                + "    @HintMessage(\"%s\") public void goToMars() { new Engine().start(); }\n"
+                + "}\n";
+        compile(tempDir.resolve("src"), output, new ArrayList<>(), new ArrayList<>(),
+                "com/acme/Engine.java", engine, "com/acme/Spaceship.java", String.format(spaceship, "old hint"));
+        // only the changed source is compiled again, in the same output directory
+        compile(tempDir.resolve("changed-src"), output, Arrays.asList(output), new ArrayList<>(),
+                "com/acme/Spaceship.java", String.format(spaceship, "new hint"));
+
+        String reflectConfig = readReflectConfig(output);
+        assertTrue(reflectConfig.contains("\"com.acme.Engine\""), reflectConfig);
+        assertTrue(reflectConfig.contains("\"com.acme.Spaceship\""), reflectConfig);
+
+        List<HintMessageIndex> indexes = loadIndexes(output);
+        assertEquals(1, indexes.size());
+        assertEquals("engine hint", lookup(indexes, "com.acme.Engine", "start"));
+        assertEquals("new hint", lookup(indexes, "com.acme.Spaceship", "goToMars"));
+    }
+}